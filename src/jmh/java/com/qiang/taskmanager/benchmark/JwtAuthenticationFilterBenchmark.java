@@ -0,0 +1,91 @@
+package com.qiang.taskmanager.benchmark;
+
+import com.qiang.taskmanager.cache.PrincipalCache;
+import com.qiang.taskmanager.config.JwtAuthenticationFilter;
+import com.qiang.taskmanager.entity.User;
+import com.qiang.taskmanager.service.UserService;
+import com.qiang.taskmanager.util.JwtUtil;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter基准
+ * 分别测量已认证请求、放行路径和缺少token返回401三种情况，用户从PrincipalCache命中，不访问数据库；
+ * 每次调用都创建新的Mock请求和响应，该部分开销包含在结果中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.newJwtUtil();
+        authorization = "Bearer " + jwtUtil.generateToken(JwtBenchmark.USERNAME);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(JwtBenchmark.USERNAME);
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.findByUsername(JwtBenchmark.USERNAME)).thenReturn(user);
+
+        PrincipalCache principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "maximumSize", 10000L);
+        ReflectionTestUtils.setField(principalCache, "ttlSeconds", 3600L);
+        principalCache.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/1");
+        request.addHeader("Authorization", authorization);
+        return filter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicPath() throws Exception {
+        return filter(new MockHttpServletRequest("POST", "/users/login"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse missingToken() throws Exception {
+        return filter(new MockHttpServletRequest("GET", "/tasks/1"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.qiang.taskmanager.benchmark;
+
+import com.qiang.taskmanager.util.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt校验基准
+ * 默认成本因子与password.hashing.strength一致，结果即单次登录在哈希线程池中占用的CPU时间
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"10"})
+    private int strength;
+
+    private PasswordHasher passwordHasher;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordHasher = new PasswordHasher(strength, 1, 16, 10000);
+        encodedPassword = passwordHasher.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordHasher.matches(PASSWORD, encodedPassword);
+    }
+}
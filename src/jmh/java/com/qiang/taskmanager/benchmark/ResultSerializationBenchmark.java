@@ -0,0 +1,99 @@
+package com.qiang.taskmanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.Result;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.json.TaskJsonSerializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应序列化基准
+ * mapper=default为Spring Boot默认的反射序列化，mapper=optimized为应用实际使用的配置
+ * （TaskJsonSerializers + Blackbird），size覆盖单页、最大页和导出批次的大小
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    @Param({"default", "optimized"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private Result<List<Task>> listResult;
+    private Result<PageInfo<Task>> pageResult;
+    private Result<CursorPage<Task>> cursorResult;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("optimized".equals(mapper)) {
+            builder.serializers(new TaskJsonSerializers.TaskSerializer(),
+                            new TaskJsonSerializers.ResultSerializer(),
+                            new TaskJsonSerializers.CursorPageSerializer())
+                    .modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        List<Task> tasks = tasks(size);
+        listResult = Result.success(tasks);
+        pageResult = Result.success(new PageInfo<>(tasks));
+        cursorResult = Result.success(CursorPage.of(tasks, "MTcwNDA3MDgwMDAwMDox"));
+    }
+
+    static List<Task> tasks(int size) {
+        String[] statuses = {"待办", "进行中", "已完成"};
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("编写第" + i + "个迭代的接口文档和测试用例");
+            task.setStatus(statuses[i % statuses.length]);
+            task.setCreatedAt(createdAt.plusMinutes(i));
+            task.setUpdatedAt(task.getCreatedAt().plusHours(i % 24));
+            task.setVersion((long) (i % 5));
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Benchmark
+    public byte[] list() throws Exception {
+        return objectMapper.writeValueAsBytes(listResult);
+    }
+
+    @Benchmark
+    public byte[] page() throws Exception {
+        return objectMapper.writeValueAsBytes(pageResult);
+    }
+
+    @Benchmark
+    public byte[] cursor() throws Exception {
+        return objectMapper.writeValueAsBytes(cursorResult);
+    }
+}
@@ -0,0 +1,105 @@
+package com.qiang.taskmanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.qiang.taskmanager.entity.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 已认证用户缓存
+ * JWT过滤器通过它获取当前用户，避免每个请求都查询user表；
+ * 另外维护用户ID到用户名的索引，按ID失效时不需要遍历整个缓存
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    @Value("${user.principal-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${user.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, User> principals;
+
+    // 用户ID到缓存键的索引，随缓存条目的加载和淘汰维护
+    private final ConcurrentMap<Long, String> usernames = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                // 淘汰监听器在淘汰时同步执行，只移除仍指向该条目的索引
+                .evictionListener((String username, User user, RemovalCause cause) -> {
+                    if (user != null) {
+                        usernames.remove(user.getId(), username);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 注册命中率和淘汰数指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "user.principals");
+        Gauge.builder("cache.hit.ratio", principals, cache -> cache.stats().hitRate())
+                .tag("cache", "user.principals")
+                .description("用户缓存命中率")
+                .register(registry);
+    }
+
+    /**
+     * 根据用户名获取用户，未命中时通过loader加载并缓存
+     * @param username 用户名
+     * @param loader 加载函数
+     * @return 用户
+     */
+    public User get(String username, Function<String, User> loader) {
+        return principals.get(username, key -> {
+            User user = loader.apply(key);
+            if (user != null && user.getId() != null) {
+                usernames.put(user.getId(), key);
+            }
+            return user;
+        });
+    }
+
+    /**
+     * 根据用户ID使缓存失效
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            invalidateAll();
+            return;
+        }
+        String username = usernames.remove(userId);
+        if (username != null) {
+            principals.invalidate(username);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        principals.invalidateAll();
+        usernames.clear();
+    }
+}
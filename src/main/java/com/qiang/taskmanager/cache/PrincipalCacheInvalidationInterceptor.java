@@ -0,0 +1,71 @@
+package com.qiang.taskmanager.cache;
+
+import com.qiang.taskmanager.entity.User;
+import com.qiang.taskmanager.mapper.UserMapper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 用户缓存失效拦截器
+ * 监听UserMapper的update和deleteById语句，执行后使对应用户的缓存失效
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class PrincipalCacheInvalidationInterceptor implements Interceptor {
+
+    private static final String UPDATE_STATEMENT = UserMapper.class.getName() + ".update";
+    private static final String DELETE_STATEMENT = UserMapper.class.getName() + ".deleteById";
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        String statementId = mappedStatement.getId();
+        if (!UPDATE_STATEMENT.equals(statementId) && !DELETE_STATEMENT.equals(statementId)) {
+            return invocation.proceed();
+        }
+
+        Long userId = extractUserId(invocation.getArgs()[1]);
+        try {
+            return invocation.proceed();
+        } finally {
+            principalCache.invalidate(userId);
+            // 事务提交前其他请求可能重新加载旧数据，事务结束后再失效一次
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        principalCache.invalidate(userId);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 从语句参数中提取用户ID
+     * @param parameter 语句参数
+     * @return 用户ID，无法识别时返回null（清空整个缓存）
+     */
+    private Long extractUserId(Object parameter) {
+        if (parameter instanceof User) {
+            return ((User) parameter).getId();
+        }
+        if (parameter instanceof Long) {
+            return (Long) parameter;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+package com.qiang.taskmanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 任务总数缓存
+ * 总数和按状态的计数随写操作增量维护并定期与数据库校准，标题过滤的计数按有效期缓存
+ */
+@Component
+public class TaskCountCache {
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    // 增量计数与数据库重新校准的间隔
+    @Value("${task.count.resync-seconds:300}")
+    private long resyncSeconds;
+
+    // 标题过滤计数的有效期
+    @Value("${task.count.filter-ttl-seconds:30}")
+    private long filterTtlSeconds;
+
+    @Value("${task.count.filter-maximum-size:1000}")
+    private long filterMaximumSize;
+
+    // 状态由客户端传入，取值不受限制，按状态的计数器数量需要有上限
+    @Value("${task.count.status-maximum-size:1000}")
+    private long statusMaximumSize;
+
+    private final Counter total = new Counter();
+    private Cache<String, Counter> statusCounts;
+    private Cache<String, Long> titleCounts;
+
+    @PostConstruct
+    public void init() {
+        statusCounts = Caffeine.newBuilder()
+                .maximumSize(statusMaximumSize)
+                .build();
+        titleCounts = Caffeine.newBuilder()
+                .maximumSize(filterMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(filterTtlSeconds))
+                .build();
+    }
+
+    /**
+     * 获取任务总数
+     * @return 任务总数（近似值）
+     */
+    public long countAll() {
+        return total.get(() -> taskMapper.countAll());
+    }
+
+    /**
+     * 获取指定状态的任务数
+     * @param status 状态
+     * @return 任务数（近似值）
+     */
+    public long countByStatus(String status) {
+        return statusCounts.get(status, key -> new Counter())
+                .get(() -> taskMapper.countByStatus(status));
+    }
+
+    /**
+     * 获取标题匹配的任务数
+     * @param title 标题关键字
+     * @return 任务数（有效期内的缓存值）
+     */
+    public long countByTitle(String title) {
+        return titleCounts.get(title, key -> taskMapper.countByTitleLike(key));
+    }
+
+    /**
+     * 根据任务变更增量维护计数，在事务提交后执行，回滚的写操作不计入
+     * 更新和删除按受影响行数判断结果，不额外读取修改前的数据，原状态未知时标记状态计数失效，下次读取时重新查询
+     * @param event 任务变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                total.add(1);
+                addStatus(event.getAfter(), 1);
+                break;
+            case DELETED:
+                total.add(-1);
+                if (event.getBefore() != null) {
+                    addStatus(event.getBefore(), -1);
+                } else {
+                    markStatusStale();
+                }
+                break;
+            case UPDATED:
+                if (event.getBefore() == null) {
+                    markStatusStale();
+                } else if (!Objects.equals(event.getBefore().getStatus(), event.getAfter().getStatus())) {
+                    addStatus(event.getBefore(), -1);
+                    addStatus(event.getAfter(), 1);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 根据批量状态变更维护计数，原状态未知时只能标记失效
+     * @param event 任务状态批量变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusBulkChanged(TaskStatusBulkChangeEvent event) {
+        if (event.getFromStatus() == null) {
+            markStatusStale();
+            return;
+        }
+        addStatus(event.getFromStatus(), -event.getAffected());
+        addStatus(event.getToStatus(), event.getAffected());
+    }
+
+    private void markStatusStale() {
+        statusCounts.asMap().values().forEach(Counter::markStale);
+    }
+
+    private void addStatus(Task task, long delta) {
+        if (task == null || task.getStatus() == null) {
+            return;
+        }
+        addStatus(task.getStatus(), delta);
+    }
+
+    private void addStatus(String status, long delta) {
+        Counter counter = statusCounts.getIfPresent(status);
+        if (counter != null) {
+            counter.add(delta);
+        }
+    }
+
+    /**
+     * 增量维护的计数器，未加载、已过期或被标记失效时重新查询数据库
+     */
+    private class Counter {
+        private final AtomicLong value = new AtomicLong(-1);
+        private volatile long loadedAt;
+
+        long get(LongSupplier loader) {
+            long current = value.get();
+            if (current >= 0 && System.currentTimeMillis() - loadedAt < resyncSeconds * 1000) {
+                return current;
+            }
+            long loaded = loader.getAsLong();
+            value.set(loaded);
+            loadedAt = System.currentTimeMillis();
+            return loaded;
+        }
+
+        void add(long delta) {
+            // 未加载时不维护，下次读取时直接查询
+            value.getAndUpdate(current -> current < 0 ? current : Math.max(0, current + delta));
+        }
+
+        void markStale() {
+            value.set(-1);
+        }
+    }
+}
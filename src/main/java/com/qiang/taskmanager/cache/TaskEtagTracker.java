@@ -0,0 +1,116 @@
+package com.qiang.taskmanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 任务ETag跟踪
+ * 单个任务的ETag由ID和版本号组成，列表的ETag由任务表的变更代数组成；
+ * 所有写操作都经过TaskServiceImpl发布变更事件，据此推进代数和更新单个任务的ETag，
+ * 条件请求命中时无需查询数据库即可返回304
+ */
+@Component
+public class TaskEtagTracker {
+
+    // 记录ETag的任务数上限
+    @Value("${task.etag.maximum-size:100000}")
+    private long maximumSize;
+
+    // 以启动时间作为初始代数，避免重启后旧的列表ETag被误认为仍然有效
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    private Cache<Long, Long> taskVersions; // 任务ID -> 当前版本号
+
+    @PostConstruct
+    public void init() {
+        taskVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * 获取当前的变更代数，读取数据库之前调用
+     * @return 变更代数
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 获取已知的任务ETag
+     * @param id 任务ID
+     * @return ETag，未记录时返回null
+     */
+    public String taskEtag(Long id) {
+        Long version = taskVersions.getIfPresent(id);
+        return version == null ? null : etagOf(id, version);
+    }
+
+    /**
+     * 计算从数据库读到的任务的ETag并记录
+     * 读取期间有写操作时不记录，避免旧版本覆盖事件写入的新版本
+     * @param task 任务
+     * @param readGeneration 读取数据库之前的变更代数
+     * @return ETag，任务没有版本号时返回null
+     */
+    public String record(Task task, long readGeneration) {
+        if (task == null || task.getId() == null || task.getVersion() == null) {
+            return null;
+        }
+        // 在键锁内检查代数：事件先推进代数再更新版本号，两者不会交错
+        taskVersions.asMap().compute(task.getId(), (id, current) -> {
+            if (generation.get() != readGeneration) {
+                return current;
+            }
+            return current == null ? task.getVersion() : Math.max(current, task.getVersion());
+        });
+        return etagOf(task.getId(), task.getVersion());
+    }
+
+    /**
+     * 获取列表资源的ETag
+     * @param readGeneration 读取数据库之前的变更代数，查询期间发生的写操作会使该ETag失效
+     * @return ETag
+     */
+    public String listEtag(long readGeneration) {
+        return "\"g" + readGeneration + "\"";
+    }
+
+    /**
+     * 根据任务变更推进代数并更新单个任务的ETag，在事务提交后执行，回滚的写操作不影响ETag
+     * @param event 任务变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangeEvent event) {
+        generation.incrementAndGet();
+        Task after = event.getAfter();
+        if (after != null && after.getVersion() != null) {
+            // 并发写的事件可能乱序到达，只保留较大的版本号
+            taskVersions.asMap().merge(event.getTaskId(), after.getVersion(), Math::max);
+        } else {
+            taskVersions.invalidate(event.getTaskId());
+        }
+    }
+
+    /**
+     * 批量修改状态后推进代数并使相关任务的ETag失效
+     * @param event 任务状态批量变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusBulkChanged(TaskStatusBulkChangeEvent event) {
+        generation.incrementAndGet();
+        taskVersions.invalidateAll(event.getTaskIds());
+    }
+
+    private static String etagOf(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
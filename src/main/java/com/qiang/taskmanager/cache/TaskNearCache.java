@@ -0,0 +1,145 @@
+package com.qiang.taskmanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 任务本地缓存
+ * 缓存findById的结果，基于Caffeine的W-TinyLFU淘汰策略，一次性扫描不会挤掉热点任务；
+ * 写操作通过任务变更事件在事务提交后更新或失效缓存，可选缓存不存在的ID以抵御对随机ID的探测
+ */
+@Component
+public class TaskNearCache implements MeterBinder {
+
+    @Value("${task.near-cache.maximum-size:10000}")
+    private long maximumSize = 10000;
+
+    // 兜底有效期，防止绕过TaskServiceImpl的写操作导致缓存长期不一致
+    @Value("${task.near-cache.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    @Value("${task.near-cache.negative-enabled:false}")
+    private boolean negativeEnabled;
+
+    @Value("${task.near-cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds = 30;
+
+    private Cache<Long, Optional<Task>> tasks; // 不存在的任务缓存为Optional.empty()
+
+    @PostConstruct
+    public void init() {
+        tasks = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<Task>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Task> task, long currentTime) {
+                        return ttlOf(task);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Task> task, long currentTime, long currentDuration) {
+                        return ttlOf(task);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Task> task, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    private long ttlOf(Optional<Task> task) {
+        return Duration.ofSeconds(task.isPresent() ? ttlSeconds : negativeTtlSeconds).toNanos();
+    }
+
+    /**
+     * 注册命中率、加载耗时和淘汰数指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tasks, "task.near-cache");
+        Gauge.builder("cache.hit.ratio", tasks, cache -> cache.stats().hitRate())
+                .tag("cache", "task.near-cache")
+                .description("任务缓存命中率")
+                .register(registry);
+    }
+
+    /**
+     * 根据ID获取任务，未命中时通过loader加载
+     * @param id 任务ID
+     * @param loader 加载函数，任务不存在时返回null
+     * @return 任务，不存在时返回null
+     */
+    public Task get(Long id, Function<Long, Task> loader) {
+        Optional<Task> task = tasks.get(id, key -> {
+            Task loaded = loader.apply(key);
+            // 未开启负缓存时返回null，Caffeine不会缓存该结果
+            return loaded != null || negativeEnabled ? Optional.ofNullable(loaded) : null;
+        });
+        return task == null ? null : task.orElse(null);
+    }
+
+    /**
+     * 使任务缓存失效
+     * @param id 任务ID
+     */
+    public void invalidate(Long id) {
+        tasks.invalidate(id);
+    }
+
+    /**
+     * 根据任务变更更新缓存
+     * 新建的任务字段完整，直接放入缓存；更新请求只包含部分字段，只能使缓存失效；
+     * 在事务提交后处理，没有事务时立即处理：批量创建回滚时不会留下未写入的任务，
+     * 删除在提交前失效的话，并发的findById可能重新加载旧数据并一直缓存到过期
+     * @param event 任务变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangeEvent event) {
+        if (event.getType() == TaskChangeEvent.Type.CREATED && event.getAfter() != null) {
+            tasks.put(event.getTaskId(), Optional.of(copyOf(event.getAfter())));
+        } else {
+            tasks.invalidate(event.getTaskId());
+        }
+    }
+
+    /**
+     * 批量修改状态提交后使相关任务缓存失效
+     * @param event 任务状态批量变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusBulkChanged(TaskStatusBulkChangeEvent event) {
+        tasks.invalidateAll(event.getTaskIds());
+    }
+
+    // 请求对象之后可能被调用方修改，缓存保存副本
+    private static Task copyOf(Task task) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setTitle(task.getTitle());
+        copy.setStatus(task.getStatus());
+        copy.setCreatedAt(task.getCreatedAt());
+        copy.setUpdatedAt(task.getUpdatedAt());
+        copy.setVersion(task.getVersion());
+        return copy;
+    }
+}
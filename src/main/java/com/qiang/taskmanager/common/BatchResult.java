@@ -0,0 +1,30 @@
+package com.qiang.taskmanager.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量创建结果
+ * ids与请求中的任务一一对应，未创建的任务对应位置为null
+ */
+@Data
+public class BatchResult {
+    private List<Long> ids = new ArrayList<>(); // 按请求顺序生成的任务ID
+    private int created; // 成功创建的数量
+    private List<ItemError> errors = new ArrayList<>(); // 校验失败的任务
+
+    /**
+     * 单个任务的错误信息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index; // 任务在请求中的下标
+        private String message; // 错误信息
+    }
+}
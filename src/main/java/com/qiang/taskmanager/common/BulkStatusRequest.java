@@ -0,0 +1,18 @@
+package com.qiang.taskmanager.common;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量修改任务状态请求
+ * 指定ids时按ID修改（fromStatus可选，用作额外条件）；不指定ids时按fromStatus和createdBefore过滤
+ */
+@Data
+public class BulkStatusRequest {
+    private List<Long> ids; // 要修改的任务ID
+    private String fromStatus; // 原状态
+    private LocalDateTime createdBefore; // 只修改该时间之前创建的任务，仅按条件修改时有效
+    private String toStatus; // 目标状态
+}
@@ -0,0 +1,27 @@
+package com.qiang.taskmanager.common;
+
+import com.qiang.taskmanager.exception.InvalidParameterException;
+
+/**
+ * 分页查询的总数统计方式
+ */
+public enum CountMode {
+    EXACT, // 每次执行COUNT(*)
+    APPROX, // 使用缓存的计数，可能略有滞后
+    NONE; // 不统计总数，只判断是否有下一页
+
+    /**
+     * 解析请求参数，忽略大小写
+     * @param value 参数值
+     * @return 统计方式
+     * @throws InvalidParameterException 参数值无效
+     */
+    public static CountMode of(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new InvalidParameterException("无效的countMode: " + value + "，可选值为exact、approx、none");
+    }
+}
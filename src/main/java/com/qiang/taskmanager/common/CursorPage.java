@@ -0,0 +1,26 @@
+package com.qiang.taskmanager.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 只包含当前页数据和下一页游标，不统计总数
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> list; // 当前页数据
+    private int size; // 当前页数量
+    private String nextCursor; // 下一页游标，没有下一页时为null
+    private boolean hasNext; // 是否有下一页
+
+    public static <T> CursorPage<T> of(List<T> list, String nextCursor) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setList(list);
+        page.setSize(list.size());
+        page.setNextCursor(nextCursor);
+        page.setHasNext(nextCursor != null);
+        return page;
+    }
+}
@@ -0,0 +1,26 @@
+package com.qiang.taskmanager.common;
+
+import com.qiang.taskmanager.exception.InvalidParameterException;
+
+/**
+ * 流式导出的输出格式
+ */
+public enum ExportFormat {
+    NDJSON, // 每行一个JSON对象
+    ARRAY; // 分块输出的JSON数组
+
+    /**
+     * 解析请求参数，忽略大小写
+     * @param value 参数值
+     * @return 输出格式
+     * @throws InvalidParameterException 参数值无效
+     */
+    public static ExportFormat of(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidParameterException("无效的format: " + value + "，可选值为ndjson、array");
+    }
+}
@@ -0,0 +1,19 @@
+package com.qiang.taskmanager.common;
+
+import com.qiang.taskmanager.entity.Task;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 增量同步结果
+ * 包含令牌之后新建或修改的任务和已删除的任务ID，客户端保存nextToken用于下一次同步
+ */
+@Data
+public class TaskChanges {
+    private List<Task> updated = new ArrayList<>(); // 新建或修改的任务，按修改时间排序
+    private List<Long> deleted = new ArrayList<>(); // 已删除的任务ID
+    private String nextToken; // 下一次同步使用的令牌
+    private boolean hasMore; // 为true时应立即使用nextToken继续同步
+}
@@ -0,0 +1,33 @@
+package com.qiang.taskmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 任务接口隔离舱配置
+ * 单条查询、列表搜索和写操作各自使用独立的线程池、队列和语句超时
+ */
+@Data
+@ConfigurationProperties(prefix = "task.bulkhead")
+public class BulkheadProperties {
+
+    private Pool pointRead = new Pool(16, 200, 2);
+    private Pool list = new Pool(8, 50, 10);
+    private Pool write = new Pool(8, 100, 5);
+
+    @Data
+    public static class Pool {
+        private int threads; // 线程数
+        private int queueCapacity; // 队列长度，队列满时直接拒绝
+        private int timeoutSeconds; // 事务超时，作用于其中执行的每条SQL语句
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity, int timeoutSeconds) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.timeoutSeconds = timeoutSeconds;
+        }
+    }
+}
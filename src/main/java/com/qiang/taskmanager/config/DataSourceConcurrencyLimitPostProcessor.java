@@ -0,0 +1,58 @@
+package com.qiang.taskmanager.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 为数据源加上并发连接限制
+ * task.datasource.concurrency-limit大于0时生效，默认只在虚拟线程模式（vt profile）中开启
+ */
+@Component
+@Slf4j
+public class DataSourceConcurrencyLimitPostProcessor implements BeanPostProcessor, EnvironmentAware, MeterBinder {
+
+    private int limit;
+    private long acquireTimeoutMillis;
+    private ConcurrencyLimitedDataSource limitedDataSource;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.limit = environment.getProperty("task.datasource.concurrency-limit", Integer.class, 0);
+        this.acquireTimeoutMillis = environment.getProperty("task.datasource.acquire-timeout-millis", Long.class, 3000L);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (limit <= 0 || !(bean instanceof DataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+            return bean;
+        }
+        log.info("数据源{}启用并发连接限制，许可数：{}，等待超时：{}ms", beanName, limit, acquireTimeoutMillis);
+        limitedDataSource = new ConcurrencyLimitedDataSource((DataSource) bean, limit, acquireTimeoutMillis);
+        return limitedDataSource;
+    }
+
+    /**
+     * 注册许可使用情况指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (limitedDataSource == null) {
+            return;
+        }
+        Gauge.builder("datasource.permits.available", limitedDataSource, ConcurrencyLimitedDataSource::getAvailablePermits)
+                .description("数据源剩余的并发许可数")
+                .register(registry);
+        Gauge.builder("datasource.permits.waiting", limitedDataSource, ConcurrencyLimitedDataSource::getWaitingThreads)
+                .description("等待数据源许可的线程数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.qiang.taskmanager.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Jackson配置
+ * Spring Boot会把Module类型的Bean注册到全局ObjectMapper，把HttpMessageConverter类型的Bean加入Spring MVC
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Blackbird用LambdaMetafactory生成的访问器代替反射调用getter/setter，
+     * 作用于没有专用序列化器的类型，如PageInfo
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Accept或Content-Type为application/cbor时使用的转换器
+     * 基于Spring Boot的Jackson2ObjectMapperBuilder（原型Bean）构建，与JSON共享spring.jackson配置和自定义序列化器
+     * @param builder ObjectMapper构建器
+     * @return CBOR转换器
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Accept或Content-Type为application/x-jackson-smile时使用的转换器
+     * @param builder ObjectMapper构建器
+     * @return Smile转换器
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -1,8 +1,11 @@
 package com.qiang.taskmanager.config;
 
+import com.qiang.taskmanager.cache.PrincipalCache;
 import com.qiang.taskmanager.common.Result;
 import com.qiang.taskmanager.service.UserService;
 import com.qiang.taskmanager.util.JwtUtil;
+import com.qiang.taskmanager.util.VerifiedToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -30,7 +33,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
-    private ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private PrincipalCache principalCache;
 
     /**
      * 过滤请求并验证JWT token
@@ -51,16 +55,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 如果是登录或注册接口，直接放行
-        if (request.getRequestURI().contains("/users/login")
-                || request.getRequestURI().contains("/users/register")
-                || request.getRequestURI().contains("/doc.html")
-                || request.getRequestURI().contains("/v3/api-docs")
-                || request.getRequestURI().contains("/webjars/")
-                || request.getRequestURI().contains("/swagger-resources")
-                || request.getRequestURI().contains("/swagger-ui")
-                || request.getRequestURI().contains("/api-docs")
-                || request.getRequestURI().contains("/swagger")) {
+        // 如果是登录、注册或接口文档，直接放行
+        if (PublicPaths.matches(request.getRequestURI(), request.getContextPath())) {
             chain.doFilter(request, response);
             return;
         }
@@ -70,7 +66,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // 检查Authorization头是否存在
         if (requestTokenHeader == null) {
-            sendErrorResponse(response, 401, "缺少Authorization头信息");
+            reject(response, Rejection.MISSING_HEADER);
             return;
         }
 
@@ -82,54 +78,78 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // 检查token是否为空
-        if (jwtToken == null || jwtToken.trim().isEmpty()) {
-            sendErrorResponse(response, 401, "Token不能为空");
+        if (jwtToken == null || jwtToken.isBlank()) {
+            reject(response, Rejection.EMPTY_TOKEN);
             return;
         }
 
-        String username = null;
+        VerifiedToken verifiedToken;
 
-        // 提取用户名
+        // 解析并验签token，整个请求只解析一次
         try {
-            username = jwtUtil.extractUsername(jwtToken);
+            verifiedToken = jwtUtil.verify(jwtToken);
         } catch (Exception e) {
-            sendErrorResponse(response, 401, "无效的JWT Token");
+            reject(response, Rejection.INVALID_TOKEN);
             return;
         }
 
+        String username = verifiedToken.getUsername();
+
         // 验证token
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = this.userService.findByUsername(username);
+                UserDetails userDetails = principalCache.get(username, this.userService::findByUsername);
 
                 // 如果token有效，则手动配置Spring Security认证信息
-                if (jwtUtil.validateToken(jwtToken, username)) {
+                if (!verifiedToken.isExpired()) {
                     UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     usernamePasswordAuthenticationToken
                             .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
                 } else {
-                    sendErrorResponse(response, 401, "JWT Token已过期或无效");
+                    reject(response, Rejection.EXPIRED_TOKEN);
                     return;
                 }
             } catch (Exception e) {
-                sendErrorResponse(response, 401, "用户不存在或JWT Token无效");
+                reject(response, Rejection.UNKNOWN_USER);
                 return;
             }
         } else {
-            sendErrorResponse(response, 401, "JWT Token无效");
+            reject(response, Rejection.NO_SUBJECT);
             return;
         }
 
         chain.doFilter(request, response);
     }
 
-    // 添加一个辅助方法来发送错误响应
-    private void sendErrorResponse(HttpServletResponse response, int code, String message) throws IOException {
+    // 发送预先序列化的401响应
+    private void reject(HttpServletResponse response, Rejection rejection) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType("application/json;charset=UTF-8");
-        Result<Void> result = Result.error(code, message);
-        response.getWriter().write(objectMapper.writeValueAsString(result));
+        response.setContentLength(rejection.body.length);
+        response.getOutputStream().write(rejection.body);
+    }
+
+    /**
+     * 认证失败的原因，响应体在类加载时序列化为字节数组
+     */
+    private enum Rejection {
+        MISSING_HEADER("缺少Authorization头信息"),
+        EMPTY_TOKEN("Token不能为空"),
+        INVALID_TOKEN("无效的JWT Token"),
+        EXPIRED_TOKEN("JWT Token已过期或无效"),
+        UNKNOWN_USER("用户不存在或JWT Token无效"),
+        NO_SUBJECT("JWT Token无效");
+
+        private final byte[] body;
+
+        Rejection(String message) {
+            try {
+                this.body = new ObjectMapper().writeValueAsBytes(Result.error(401, message));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.qiang.taskmanager.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 无需认证的路径
+ * SecurityConfig的permitAll和JwtAuthenticationFilter的放行判断共用同一份白名单；
+ * 过滤器中的匹配在类加载时编译为精确路径集合和前缀数组，每个请求只做前缀比较，不分配对象
+ */
+public final class PublicPaths {
+
+    /**
+     * 白名单，Ant风格，只支持精确路径和以/**结尾的前缀
+     */
+    public static final String[] PATTERNS = {
+            "/users/register", "/users/login",
+            "/doc.html", "/webjars/**", "/swagger-resources/**",
+            "/v3/api-docs/**", "/swagger-ui/**"
+    };
+
+    private static final Set<String> EXACT_PATHS = new HashSet<>();
+    private static final String[] PREFIXES; // 不含结尾的/**
+
+    static {
+        List<String> prefixes = new ArrayList<>();
+        for (String pattern : PATTERNS) {
+            if (pattern.endsWith("/**")) {
+                String prefix = pattern.substring(0, pattern.length() - 3);
+                prefixes.add(prefix);
+                EXACT_PATHS.add(prefix);
+            } else if (pattern.contains("*")) {
+                throw new IllegalStateException("不支持的白名单路径：" + pattern);
+            } else {
+                EXACT_PATHS.add(pattern);
+            }
+        }
+        PREFIXES = prefixes.toArray(new String[0]);
+    }
+
+    private PublicPaths() {
+    }
+
+    /**
+     * 判断请求路径是否在白名单中
+     * @param requestUri 请求URI
+     * @param contextPath 应用上下文路径，为空时传入空字符串
+     * @return 是否无需认证
+     */
+    public static boolean matches(String requestUri, String contextPath) {
+        int offset = contextPath.length();
+        if (!requestUri.startsWith(contextPath)) {
+            return false;
+        }
+        for (String prefix : PREFIXES) {
+            // /webjars/**匹配/webjars/xxx，不匹配/webjarsxxx
+            if (requestUri.startsWith(prefix, offset)
+                    && requestUri.length() > offset + prefix.length()
+                    && requestUri.charAt(offset + prefix.length()) == '/') {
+                return true;
+            }
+        }
+        return EXACT_PATHS.contains(offset == 0 ? requestUri : requestUri.substring(offset));
+    }
+}
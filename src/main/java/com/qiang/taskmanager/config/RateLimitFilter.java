@@ -0,0 +1,180 @@
+package com.qiang.taskmanager.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.qiang.taskmanager.common.Result;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 接口限流过滤器
+ * 位于JwtAuthenticationFilter之后，认证用户按用户名限流，登录、注册等接口按客户端IP限流；
+ * 令牌桶保存在Caffeine中，闲置的桶自动回收，客户端数量再多内存也有上限；
+ * 客户端IP取自request.getRemoteAddr()，部署在代理之后时需配置server.forward-headers-strategy
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final byte[] REJECTED_BODY;
+
+    static {
+        try {
+            REJECTED_BODY = new ObjectMapper().writeValueAsBytes(Result.error(429, "请求过于频繁，请稍后重试"));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private CompiledRoute[] routes;
+    private Cache<String, TokenBucket> buckets; // 路由下标:用户名或IP -> 令牌桶
+
+    @PostConstruct
+    public void init() {
+        List<RateLimitProperties.Route> configured = properties.getRoutes();
+        routes = new CompiledRoute[configured.size()];
+        for (int i = 0; i < routes.length; i++) {
+            routes[i] = new CompiledRoute(i, configured.get(i), properties.getIdleSeconds());
+        }
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleSeconds()))
+                .build();
+    }
+
+    /**
+     * 注册各路由的拒绝次数和令牌桶数量指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CompiledRoute route : routes) {
+            FunctionCounter.builder("http.rate-limit.rejected", route.rejected, LongAdder::sum)
+                    .tag("route", route.name)
+                    .description("被限流拒绝的请求数")
+                    .register(registry);
+        }
+        Gauge.builder("http.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("当前的令牌桶数量")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompiledRoute route = properties.isEnabled() && !"OPTIONS".equalsIgnoreCase(request.getMethod())
+                ? match(request) : null;
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(route.index + ":" + clientKey(route, request), key -> new TokenBucket(now));
+        long waitNanos = bucket.tryAcquire(now, route.intervalNanos, route.capacity);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        route.rejected.increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private CompiledRoute match(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int offset = request.getContextPath().length();
+        String method = request.getMethod();
+        for (CompiledRoute route : routes) {
+            if (route.matches(uri, offset, method)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(CompiledRoute route, HttpServletRequest request) {
+        if (route.key == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()) {
+                return "u:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * 预处理后的路由
+     */
+    private static class CompiledRoute {
+        private final int index;
+        private final String name;
+        private final String path; // 去掉结尾/**的路径
+        private final boolean prefix;
+        private final String method;
+        private final RateLimitProperties.Key key;
+        private final int capacity;
+        private final long intervalNanos;
+        private final LongAdder rejected = new LongAdder();
+
+        CompiledRoute(int index, RateLimitProperties.Route route, long idleSeconds) {
+            if (route.getPath() == null || route.getCapacity() <= 0 || route.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("限流路由配置无效：" + route);
+            }
+            // 桶在回满之前被回收，再次访问时会拿到一个满桶，等于放宽了限流
+            if (route.getCapacity() / route.getRefillPerSecond() > idleSeconds) {
+                throw new IllegalStateException("限流路由" + route.getPath() + "的令牌桶回满需要"
+                        + (long) Math.ceil(route.getCapacity() / route.getRefillPerSecond()) + "秒，超过了idle-seconds=" + idleSeconds);
+            }
+            this.index = index;
+            this.name = route.getPath();
+            this.prefix = route.getPath().endsWith("/**");
+            this.path = prefix ? route.getPath().substring(0, route.getPath().length() - 3) : route.getPath();
+            this.method = route.getMethod();
+            this.key = route.getKey();
+            this.capacity = route.getCapacity();
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / route.getRefillPerSecond()));
+        }
+
+        boolean matches(String uri, int offset, String requestMethod) {
+            if (method != null && !method.equalsIgnoreCase(requestMethod)) {
+                return false;
+            }
+            if (!uri.startsWith(path, offset)) {
+                return false;
+            }
+            int end = offset + path.length();
+            return uri.length() == end || (prefix && uri.charAt(end) == '/');
+        }
+    }
+}
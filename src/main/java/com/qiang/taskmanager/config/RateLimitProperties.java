@@ -0,0 +1,35 @@
+package com.qiang.taskmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 接口限流配置
+ * 按路由配置令牌桶容量和补充速率，请求按第一个匹配的路由限流，没有匹配的路由不限流
+ */
+@Data
+@ConfigurationProperties(prefix = "task.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long maxBuckets = 1_000_000; // 令牌桶数量上限，超出后按W-TinyLFU淘汰
+    private long idleSeconds = 600; // 令牌桶闲置超过该时间后回收，不能小于任何路由的回满时间capacity/refillPerSecond，否则启动失败
+    private List<Route> routes = new ArrayList<>();
+
+    public enum Key {
+        USER, // 按认证用户限流，未认证时按IP
+        IP // 按客户端IP限流，用于登录、注册等无需认证的接口
+    }
+
+    @Data
+    public static class Route {
+        private String path; // 精确路径或以/**结尾的前缀
+        private String method; // HTTP方法，为空时匹配所有方法
+        private Key key = Key.USER;
+        private int capacity; // 桶容量，即允许的突发请求数
+        private double refillPerSecond; // 每秒补充的令牌数
+    }
+}
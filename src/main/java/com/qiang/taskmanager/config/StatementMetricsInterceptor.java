@@ -0,0 +1,128 @@
+package com.qiang.taskmanager.config;
+
+import com.qiang.taskmanager.monitor.SlowQuerySampler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL语句耗时统计拦截器
+ * 按MappedStatement ID记录耗时、返回行数和错误数；PageHelper在本拦截器外层执行，
+ * 它生成的COUNT语句（ID以_COUNT结尾）也会单独统计。
+ * 每个语句的指标在首次执行时创建并缓存，之后每次执行只有一次Map查找和两次计时调用；
+ * 耗时交给SlowQuerySampler判断是否需要采样
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class StatementMetricsInterceptor implements Interceptor, MeterBinder {
+
+    @Autowired
+    private SlowQuerySampler slowQuerySampler;
+
+    private volatile MeterRegistry registry;
+    private final ConcurrentMap<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            return invocation.proceed();
+        }
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        StatementMeters statementMeters = meters.computeIfAbsent(mappedStatement.getId(),
+                id -> new StatementMeters(registry, id, mappedStatement.getSqlCommandType().name().toLowerCase()));
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            long elapsed = System.nanoTime() - start;
+            statementMeters.error.record(elapsed, TimeUnit.NANOSECONDS);
+            slowQuerySampler.onStatement(mappedStatement, invocation.getArgs(), elapsed, e);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        statementMeters.success.record(elapsed, TimeUnit.NANOSECONDS);
+        slowQuerySampler.onStatement(mappedStatement, invocation.getArgs(), elapsed, null);
+        long rows = rowsOf(result);
+        if (rows >= 0) {
+            statementMeters.rows.record(rows);
+        }
+        return result;
+    }
+
+    // 查询返回结果行数，更新返回受影响行数；游标和ResultHandler查询无法得知行数，返回-1
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return -1;
+    }
+
+    /**
+     * 单个语句的指标
+     */
+    private static class StatementMeters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        StatementMeters(MeterRegistry registry, String statementId, String type) {
+            String statement = shortName(statementId);
+            this.success = Timer.builder("mybatis.statement")
+                    .description("SQL语句执行耗时")
+                    .tags("statement", statement, "type", type, "outcome", "success")
+                    .register(registry);
+            this.error = Timer.builder("mybatis.statement")
+                    .description("SQL语句执行耗时")
+                    .tags("statement", statement, "type", type, "outcome", "error")
+                    .register(registry);
+            this.rows = DistributionSummary.builder("mybatis.statement.rows")
+                    .description("SQL语句返回或影响的行数")
+                    .tags("statement", statement, "type", type)
+                    .register(registry);
+        }
+
+        // com.qiang.taskmanager.mapper.TaskMapper.findById -> TaskMapper.findById
+        private static String shortName(String statementId) {
+            int method = statementId.lastIndexOf('.');
+            int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+            return statementId.substring(type + 1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.qiang.taskmanager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 任务接口隔离舱
+ * 按负载类型把请求分派到独立的有界线程池，并在带超时的事务中执行，
+ * 慢查询只会占满自己的线程池和队列，队列满时立即拒绝而不是拖垮整个节点
+ */
+@Component
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class TaskBulkheads implements MeterBinder {
+
+    public enum Workload {
+        POINT_READ, // 按ID查询
+        LIST, // 列表和搜索
+        WRITE // 创建、更新、删除
+    }
+
+    @Autowired
+    private BulkheadProperties properties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Workload, ThreadPoolTaskExecutor> executors = new EnumMap<>(Workload.class);
+    private final Map<Workload, TransactionTemplate> transactions = new EnumMap<>(Workload.class);
+
+    @PostConstruct
+    public void init() {
+        for (Workload workload : Workload.values()) {
+            BulkheadProperties.Pool pool = poolOf(workload);
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(pool.getThreads());
+            executor.setMaxPoolSize(pool.getThreads());
+            executor.setQueueCapacity(pool.getQueueCapacity());
+            executor.setThreadNamePrefix("task-" + workload.name().toLowerCase().replace('_', '-') + "-");
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(pool.getTimeoutSeconds());
+            executor.initialize();
+            executors.put(workload, executor);
+
+            // 事务超时由mybatis-spring设置为语句的查询超时
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setTimeout(pool.getTimeoutSeconds());
+            transaction.setReadOnly(workload != Workload.WRITE);
+            transactions.put(workload, transaction);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    /**
+     * 在指定负载类型的线程池中执行操作
+     * @param workload 负载类型
+     * @param action 操作
+     * @return 操作结果
+     * @throws RejectedExecutionException 线程池和队列已满
+     */
+    public <T> CompletableFuture<T> submit(Workload workload, Supplier<T> action) {
+        TransactionTemplate transaction = transactions.get(workload);
+        return CompletableFuture.supplyAsync(() -> transaction.execute(status -> action.get()), executors.get(workload));
+    }
+
+    /**
+     * 注册各线程池的线程数、队列长度和完成任务数等指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        executors.forEach((workload, executor) -> new ExecutorServiceMetrics(executor.getThreadPoolExecutor(),
+                "task.bulkhead", Tags.of("workload", workload.name().toLowerCase())).bindTo(registry));
+    }
+
+    private BulkheadProperties.Pool poolOf(Workload workload) {
+        switch (workload) {
+            case POINT_READ:
+                return properties.getPointRead();
+            case LIST:
+                return properties.getList();
+            default:
+                return properties.getWrite();
+        }
+    }
+}
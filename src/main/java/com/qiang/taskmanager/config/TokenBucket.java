@@ -0,0 +1,39 @@
+package com.qiang.taskmanager.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 按GCRA算法只保存一个“理论到达时间”，取令牌是一次CAS，无需同时维护令牌数和上次补充时间：
+ * 理论到达时间比当前时间超前的部分就是已消耗、尚未补充的令牌，超前量超过桶容量时拒绝
+ */
+class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试取一个令牌
+     * @param nowNanos 当前时间（System.nanoTime）
+     * @param intervalNanos 补充一个令牌的间隔
+     * @param capacity 桶容量
+     * @return 0表示取到令牌，否则为需要等待的纳秒数
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, int capacity) {
+        long limit = intervalNanos * capacity;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - nowNanos < 0 ? nowNanos : current) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > limit) {
+                return ahead - limit;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.qiang.taskmanager.controller;
+
+import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.common.CountMode;
+import com.qiang.taskmanager.common.Result;
+import com.qiang.taskmanager.config.TaskBulkheads;
+import com.qiang.taskmanager.config.TaskBulkheads.Workload;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.service.TaskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步任务接口
+ * 与TaskController功能相同，但按负载类型在独立的线程池中执行，队列满时返回503
+ */
+@RestController
+@RequestMapping("/tasks/async")
+@Slf4j
+@Tag(name = "异步任务接口", description = "按负载类型隔离执行的任务增删改查接口")
+public class AsyncTaskController {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskBulkheads bulkheads;
+
+    // 根据ID获取任务
+    @GetMapping("/{id}")
+    @Operation(summary = "根据ID获取任务（异步）")
+    public CompletableFuture<Result<Task>> getTaskById(@PathVariable Long id) {
+        log.info("异步根据ID获取任务,ID为:{}", id);
+        return bulkheads.submit(Workload.POINT_READ, () -> Result.success(taskService.findById(id)));
+    }
+
+    // 创建新任务
+    @PostMapping
+    @Operation(summary = "创建新任务（异步）")
+    public CompletableFuture<Result<Void>> createTask(@RequestBody Task task) {
+        log.info("异步创建新任务");
+        return bulkheads.submit(Workload.WRITE, () -> {
+            taskService.createTask(task);
+            return Result.success();
+        });
+    }
+
+    // 更新任务
+    @PutMapping("/{id}")
+    @Operation(summary = "更新任务（异步）")
+    public CompletableFuture<Result<Void>> updateTask(@PathVariable Long id, @RequestBody Task task) {
+        log.info("异步更新任务,ID为：{}", id);
+        task.setId(id);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            taskService.updateTask(task);
+            return Result.success();
+        });
+    }
+
+    // 删除任务
+    @DeleteMapping("/{id}")
+    @Operation(summary = "删除任务（异步）")
+    public CompletableFuture<Result<Void>> deleteTask(@PathVariable Long id) {
+        log.info("异步删除任务,ID为：{}", id);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            taskService.deleteById(id);
+            return Result.success();
+        });
+    }
+
+    // 分页查询所有任务
+    @GetMapping("/page")
+    @Operation(summary = "分页查询所有任务（异步）")
+    public CompletableFuture<Result<PageInfo<Task>>> getTasksWithPage(
+            @RequestParam(defaultValue = "1") int pageNum,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "exact") String countMode) {
+        log.info("异步分页查询所有任务，页码：{}，每页数量：{}", pageNum, pageSize);
+        CountMode mode = CountMode.of(countMode);
+        return bulkheads.submit(Workload.LIST,
+                () -> Result.success(taskService.findTasksWithPage(pageNum, pageSize, mode)));
+    }
+
+    // 根据标题模糊查询任务（分页）
+    @GetMapping("/search/title")
+    @Operation(summary = "根据标题模糊查询任务（异步）")
+    public CompletableFuture<Result<PageInfo<Task>>> searchTasksByTitle(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "1") int pageNum,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "exact") String countMode) {
+        log.info("异步根据标题模糊查询任务，标题：{}，页码：{}，每页数量：{}", title, pageNum, pageSize);
+        CountMode mode = CountMode.of(countMode);
+        return bulkheads.submit(Workload.LIST,
+                () -> Result.success(taskService.findTasksByTitleWithPage(title, pageNum, pageSize, mode)));
+    }
+
+    // 根据状态查询任务（分页）
+    @GetMapping("/search/status")
+    @Operation(summary = "根据状态查询任务（异步）")
+    public CompletableFuture<Result<PageInfo<Task>>> searchTasksByStatus(
+            @RequestParam String status,
+            @RequestParam(defaultValue = "1") int pageNum,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "exact") String countMode) {
+        log.info("异步根据状态查询任务，状态：{}，页码：{}，每页数量：{}", status, pageNum, pageSize);
+        CountMode mode = CountMode.of(countMode);
+        return bulkheads.submit(Workload.LIST,
+                () -> Result.success(taskService.findTasksByStatusWithPage(status, pageNum, pageSize, mode)));
+    }
+}
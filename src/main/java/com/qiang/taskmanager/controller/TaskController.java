@@ -1,16 +1,42 @@
 package com.qiang.taskmanager.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.cache.TaskEtagTracker;
+import com.qiang.taskmanager.common.BatchResult;
+import com.qiang.taskmanager.common.BulkStatusRequest;
+import com.qiang.taskmanager.common.CountMode;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.ExportFormat;
 import com.qiang.taskmanager.common.Result;
+import com.qiang.taskmanager.common.TaskChanges;
 import com.qiang.taskmanager.entity.Task;
 import com.qiang.taskmanager.service.TaskService;
+import com.qiang.taskmanager.stream.TaskChangeFeed;
 import io.swagger.v3.oas.annotations.Operation;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -19,23 +45,154 @@ import java.util.List;
 @Tag(name = "任务管理接口", description = "任务的增删改查接口")
 public class TaskController {
 
+    // 流式导出时每写出多少条任务刷新一次响应
+    private static final int EXPORT_FLUSH_INTERVAL = 256;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskEtagTracker taskEtagTracker;
+
+    // 二进制格式的转换器，流式导出时直接使用其中的ObjectMapper
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
     // 获取所有任务
     @GetMapping
     @Operation(summary = "获取所有任务", description = "获取所有任务列表")
-    public Result<List<Task>> getAllTasks() {
+    public Result<List<Task>> getAllTasks(WebRequest request) {
         log.info("获取所有任务");
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
         return Result.success(taskService.findAll());
     }
 
+    // 流式导出所有任务
+    @GetMapping("/export")
+    @Operation(summary = "流式导出所有任务", description = "逐条读取并写出任务，format可选ndjson（默认，每行一个任务）、array（JSON数组）；"
+            + "Accept为application/cbor或application/x-jackson-smile时以对应的二进制格式输出，ndjson对应连续的根值序列")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        AbstractJackson2HttpMessageConverter binaryConverter = binaryConverter(accept);
+        ObjectMapper mapper = binaryConverter != null ? binaryConverter.getObjectMapper() : objectMapper;
+        log.info("流式导出所有任务，格式：{}，编码：{}", exportFormat, mapper.getFactory().getFormatName());
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+                writeTasks(generator, mapper, exportFormat);
+            }
+        };
+        MediaType contentType = binaryConverter != null ? binaryConverter.getSupportedMediaTypes().get(0)
+                : exportFormat == ExportFormat.NDJSON ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(body);
+    }
+
+    // 按Accept中的顺序选择第一个二进制格式，没有时返回null（JSON）
+    private AbstractJackson2HttpMessageConverter binaryConverter(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return null;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return cborConverter;
+            }
+            if (mediaType.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                return smileConverter;
+            }
+        }
+        return null;
+    }
+
+    private void writeTasks(JsonGenerator generator, ObjectMapper mapper, ExportFormat format) throws IOException {
+        if (format == ExportFormat.ARRAY) {
+            generator.writeStartArray();
+        } else if (mapper == objectMapper) {
+            // 换行由下面手动写出；二进制生成器不支持设置根值分隔符
+            generator.setRootValueSeparator(null);
+        }
+        // 预先解析Task的序列化器，并关闭每写一个对象就flush的默认行为，由下面按批刷新
+        ObjectWriter writer = mapper.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int[] written = {0};
+        try {
+            taskService.streamAll(task -> {
+                try {
+                    writer.writeValue(generator, task);
+                    // 二进制格式的根值自带边界，不需要换行分隔
+                    if (format == ExportFormat.NDJSON && mapper == objectMapper) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    // 客户端断开等写出失败，中止读取以释放数据库连接
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 响应已经开始写出，无法再返回错误结果，只能中断连接
+            log.warn("流式导出任务中断，已写出{}条", written[0], e);
+            throw e;
+        }
+        if (format == ExportFormat.ARRAY) {
+            generator.writeEndArray();
+        }
+        log.info("流式导出任务完成，共{}条", written[0]);
+    }
+
+    // 订阅任务变更
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅任务变更", description = "以Server-Sent Events推送created、updated、deleted、status事件，"
+            + "收到resync事件时应重新拉取列表；重连时携带Last-Event-ID可补发断线期间的事件")
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("订阅任务变更，Last-Event-ID：{}", lastEventId);
+        return taskChangeFeed.subscribe(lastEventId);
+    }
+
+    // 增量同步
+    @GetMapping("/changes")
+    @Operation(summary = "增量同步任务", description = "返回令牌之后新建、修改的任务和已删除的任务ID；首次同步不传since，"
+            + "之后传入上次返回的nextToken，hasMore为true时继续请求。令牌超过墓碑保留期返回410，需要重新全量同步")
+    public Result<TaskChanges> getTaskChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int pageSize) {
+        log.info("增量同步任务，令牌：{}，每页数量：{}", since, pageSize);
+        return Result.success(taskService.findChanges(since, pageSize));
+    }
+
     // 根据ID获取任务
     @GetMapping("/{id}")
     @Operation(summary = "根据ID获取任务", description = "根据任务ID获取任务详情")
-    public Result<Task> getTaskById(@PathVariable Long id) {
+    public Result<Task> getTaskById(@PathVariable Long id, WebRequest request) {
         log.info("根据ID获取任务,ID为:{}", id);
-        return Result.success(taskService.findById(id));
+        // 版本号已知且与If-None-Match一致时不查询数据库，否则按查询结果重新计算ETag
+        String etag = taskEtagTracker.taskEtag(id);
+        Task task = null;
+        if (etag == null || !ifNoneMatch(request, encodedEtag(request, etag))) {
+            long generation = taskEtagTracker.generation();
+            task = taskService.findById(id);
+            etag = taskEtagTracker.record(task, generation);
+        }
+        if (notModified(request, etag)) {
+            return null;
+        }
+        return Result.success(task);
     }
 
     // 创建新任务
@@ -47,6 +204,23 @@ public class TaskController {
         return Result.success();
     }
 
+    // 批量创建任务
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建任务", description = "在一个事务中批量创建任务，返回按请求顺序生成的ID；partial为true时跳过无效任务并返回逐条错误")
+    public Result<BatchResult> createTasks(@RequestBody List<Task> tasks,
+                                           @RequestParam(defaultValue = "false") boolean partial) {
+        log.info("批量创建任务，数量：{}，部分成功模式：{}", tasks.size(), partial);
+        return Result.success(taskService.createTasks(tasks, partial));
+    }
+
+    // 批量修改任务状态
+    @PostMapping("/status/batch")
+    @Operation(summary = "批量修改任务状态", description = "按ID列表或按原状态和创建时间过滤批量修改状态，分块提交，返回实际修改的行数")
+    public Result<Integer> updateStatusInBulk(@RequestBody BulkStatusRequest request) {
+        log.info("批量修改任务状态，目标状态：{}", request.getToStatus());
+        return Result.success(taskService.updateStatusInBulk(request));
+    }
+
     // 更新任务
     @PutMapping("/{id}")
     @Operation(summary = "更新任务", description = "根据任务ID更新任务")
@@ -68,36 +242,146 @@ public class TaskController {
 
     // 分页查询所有任务
     @GetMapping("/page")
-    @Operation(summary = "分页查询所有任务")
+    @Operation(summary = "分页查询所有任务", description = "countMode可选exact（默认）、approx（缓存计数）、none（不统计总数）")
     public Result<PageInfo<Task>> getTasksWithPage(
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize) {
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String countMode,
+            WebRequest request) {
         log.info("分页查询所有任务，页码：{}，每页数量：{}", pageNum, pageSize);
-        PageInfo<Task> pageInfo = taskService.findTasksWithPage(pageNum, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        PageInfo<Task> pageInfo = countMode == null
+                ? taskService.findTasksWithPage(pageNum, pageSize)
+                : taskService.findTasksWithPage(pageNum, pageSize, CountMode.of(countMode));
         return Result.success(pageInfo);
     }
 
     // 根据标题模糊查询任务（分页）
     @GetMapping("/search/title")
-    @Operation(summary = "根据标题模糊查询任务")
+    @Operation(summary = "根据标题模糊查询任务", description = "countMode可选exact（默认）、approx（缓存计数）、none（不统计总数）")
     public Result<PageInfo<Task>> searchTasksByTitle(
             @RequestParam String title,
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize) {
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String countMode,
+            WebRequest request) {
         log.info("根据标题模糊查询任务，标题：{}，页码：{}，每页数量：{}", title, pageNum, pageSize);
-        PageInfo<Task> pageInfo = taskService.findTasksByTitleWithPage(title, pageNum, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        PageInfo<Task> pageInfo = countMode == null
+                ? taskService.findTasksByTitleWithPage(title, pageNum, pageSize)
+                : taskService.findTasksByTitleWithPage(title, pageNum, pageSize, CountMode.of(countMode));
         return Result.success(pageInfo);
     }
 
     // 根据状态查询任务（分页）
     @GetMapping("/search/status")
-    @Operation(summary = "根据状态查询任务")
+    @Operation(summary = "根据状态查询任务", description = "countMode可选exact（默认）、approx（缓存计数）、none（不统计总数）")
     public Result<PageInfo<Task>> searchTasksByStatus(
             @RequestParam String status,
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize) {
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String countMode,
+            WebRequest request) {
         log.info("根据状态查询任务，状态：{}，页码：{}，每页数量：{}", status, pageNum, pageSize);
-        PageInfo<Task> pageInfo = taskService.findTasksByStatusWithPage(status, pageNum, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        PageInfo<Task> pageInfo = countMode == null
+                ? taskService.findTasksByStatusWithPage(status, pageNum, pageSize)
+                : taskService.findTasksByStatusWithPage(status, pageNum, pageSize, CountMode.of(countMode));
         return Result.success(pageInfo);
     }
+
+    // 游标分页查询所有任务
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询所有任务", description = "按创建时间和ID排序，传入上一页返回的nextCursor获取下一页，不统计总数")
+    public Result<CursorPage<Task>> getTasksWithCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            WebRequest request) {
+        log.info("游标分页查询所有任务，游标：{}，每页数量：{}", cursor, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        return Result.success(taskService.findTasksWithCursor(cursor, pageSize));
+    }
+
+    // 根据标题模糊查询任务（游标分页）
+    @GetMapping("/search/title/cursor")
+    @Operation(summary = "根据标题模糊查询任务（游标分页）")
+    public Result<CursorPage<Task>> searchTasksByTitleWithCursor(
+            @RequestParam String title,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            WebRequest request) {
+        log.info("根据标题游标分页查询任务，标题：{}，游标：{}，每页数量：{}", title, cursor, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        return Result.success(taskService.findTasksByTitleWithCursor(title, cursor, pageSize));
+    }
+
+    // 根据状态查询任务（游标分页）
+    @GetMapping("/search/status/cursor")
+    @Operation(summary = "根据状态查询任务（游标分页）")
+    public Result<CursorPage<Task>> searchTasksByStatusWithCursor(
+            @RequestParam String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            WebRequest request) {
+        log.info("根据状态游标分页查询任务，状态：{}，游标：{}，每页数量：{}", status, cursor, pageSize);
+        if (notModified(request, taskEtagTracker.listEtag(taskEtagTracker.generation()))) {
+            return null;
+        }
+        return Result.success(taskService.findTasksByStatusWithCursor(status, cursor, pageSize));
+    }
+
+    // 条件请求的ETag与当前一致时返回true，此时响应已被设置为304
+    // JSON、CBOR、Smile是同一资源的不同表示，ETag按协商的编码区分，并声明响应随Accept变化
+    private boolean notModified(WebRequest request, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        if (request instanceof NativeWebRequest) {
+            HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return request.checkNotModified(encodedEtag(request, etag));
+    }
+
+    // 按协商的编码区分ETag："g12" -> "g12-cbor"
+    private String encodedEtag(WebRequest request, String etag) {
+        AbstractJackson2HttpMessageConverter binaryConverter = binaryConverter(request.getHeader(HttpHeaders.ACCEPT));
+        if (binaryConverter == null) {
+            return etag;
+        }
+        String format = binaryConverter.getObjectMapper().getFactory().getFormatName().toLowerCase();
+        return etag.substring(0, etag.length() - 1) + "-" + format + "\"";
+    }
+
+    // 只比较If-None-Match，不设置响应头和状态码，每个请求只调用一次checkNotModified
+    private boolean ifNoneMatch(WebRequest request, String etag) {
+        String[] values = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String candidate : value.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
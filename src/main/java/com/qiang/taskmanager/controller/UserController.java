@@ -2,6 +2,7 @@ package com.qiang.taskmanager.controller;
 
 import com.qiang.taskmanager.common.Result;
 import com.qiang.taskmanager.entity.User;
+import com.qiang.taskmanager.exception.PasswordHashRejectedException;
 import com.qiang.taskmanager.service.UserService;
 import com.qiang.taskmanager.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,6 +40,8 @@ public class UserController {
         try {
             userService.register(user);
             return Result.success("注册成功");
+        } catch (PasswordHashRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return Result.error(500, "注册失败：" + e.getMessage());
         }
@@ -63,6 +66,8 @@ public class UserController {
             log.info("用户登录成功，用户名: " + loginUser.getUsername(), "token:", token);
 
             return Result.success(token);
+        } catch (PasswordHashRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return Result.error(401, "用户名或密码错误: " + e.getMessage());
         }
@@ -9,4 +9,6 @@ public class Task {
     private String title;
     private String status;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt; // 最后修改时间，由服务端维护，用于增量同步
+    private Long version; // 乐观锁版本号，更新时携带则只在版本一致时更新
 }
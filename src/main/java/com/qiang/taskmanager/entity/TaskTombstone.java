@@ -0,0 +1,10 @@
+package com.qiang.taskmanager.entity;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class TaskTombstone {
+    private Long taskId;
+    private LocalDateTime deletedAt;
+}
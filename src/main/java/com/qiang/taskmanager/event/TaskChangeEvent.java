@@ -0,0 +1,40 @@
+package com.qiang.taskmanager.event;
+
+import com.qiang.taskmanager.entity.Task;
+import lombok.Getter;
+
+/**
+ * 任务变更事件
+ * 由TaskServiceImpl在写操作成功后发布，用于维护计数、缓存等派生数据
+ */
+@Getter
+public class TaskChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long taskId;
+    private final Task before; // 变更前的任务，未知时为null
+    private final Task after; // 变更后的任务，删除时为null
+
+    private TaskChangeEvent(Type type, Long taskId, Task before, Task after) {
+        this.type = type;
+        this.taskId = taskId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static TaskChangeEvent created(Task task) {
+        return new TaskChangeEvent(Type.CREATED, task.getId(), null, task);
+    }
+
+    public static TaskChangeEvent updated(Task before, Task after) {
+        return new TaskChangeEvent(Type.UPDATED, after.getId(), before, after);
+    }
+
+    public static TaskChangeEvent deleted(Long taskId, Task before) {
+        return new TaskChangeEvent(Type.DELETED, taskId, before, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.qiang.taskmanager.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 任务状态批量变更事件
+ * 每个分块提交后发布一次，taskIds为该分块请求修改的任务ID，其中实际被修改的数量为affected
+ */
+@Getter
+public class TaskStatusBulkChangeEvent {
+
+    private final List<Long> taskIds;
+    private final String fromStatus; // 原状态，未知时为null
+    private final String toStatus;
+    private final int affected;
+
+    public TaskStatusBulkChangeEvent(List<Long> taskIds, String fromStatus, String toStatus, int affected) {
+        this.taskIds = taskIds;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.affected = affected;
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 全局异常处理器
  */
@@ -23,6 +25,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(404).body(result);
     }
 
+    /**
+     * 处理任务版本冲突异常
+     * @param ex 任务版本冲突异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(TaskConflictException.class)
+    public ResponseEntity<Result<Void>> handleTaskConflictException(TaskConflictException ex) {
+        Result<Void> result = Result.error(409, ex.getMessage());
+        return ResponseEntity.status(409).body(result);
+    }
+
     /**
      * 处理任务操作异常
      * @param ex 任务操作异常
@@ -34,6 +47,61 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(500).body(result);
     }
 
+    /**
+     * 处理分页游标无效异常
+     * @param ex 分页游标无效异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Result<Void>> handleInvalidCursorException(InvalidCursorException ex) {
+        Result<Void> result = Result.error(400, ex.getMessage());
+        return ResponseEntity.status(400).body(result);
+    }
+
+    /**
+     * 处理同步令牌过期异常，客户端需要重新全量同步
+     * @param ex 同步令牌过期异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<Result<Void>> handleSyncTokenExpiredException(SyncTokenExpiredException ex) {
+        Result<Void> result = Result.error(410, ex.getMessage());
+        return ResponseEntity.status(410).body(result);
+    }
+
+    /**
+     * 处理请求参数无效异常
+     * @param ex 请求参数无效异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(InvalidParameterException.class)
+    public ResponseEntity<Result<Void>> handleInvalidParameterException(InvalidParameterException ex) {
+        Result<Void> result = Result.error(400, ex.getMessage());
+        return ResponseEntity.status(400).body(result);
+    }
+
+    /**
+     * 处理密码哈希被拒绝异常
+     * @param ex 密码哈希被拒绝异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(PasswordHashRejectedException.class)
+    public ResponseEntity<Result<Void>> handlePasswordHashRejectedException(PasswordHashRejectedException ex) {
+        Result<Void> result = Result.error(503, ex.getMessage());
+        return ResponseEntity.status(503).header("Retry-After", "1").body(result);
+    }
+
+    /**
+     * 处理线程池拒绝执行异常（隔离舱已满）
+     * @param ex 拒绝执行异常
+     * @return 响应结果
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Result<Void>> handleRejectedExecutionException(RejectedExecutionException ex) {
+        Result<Void> result = Result.error(503, "服务繁忙，请稍后重试");
+        return ResponseEntity.status(503).header("Retry-After", "1").body(result);
+    }
+
     /**
      * 处理HTTP消息不可读异常
      * @param ex HTTP消息不可读异常
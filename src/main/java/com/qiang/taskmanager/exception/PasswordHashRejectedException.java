@@ -0,0 +1,7 @@
+package com.qiang.taskmanager.exception;
+
+public class PasswordHashRejectedException extends RuntimeException {
+    public PasswordHashRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.qiang.taskmanager.exception;
+
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.qiang.taskmanager.exception;
+
+public class TaskConflictException extends RuntimeException {
+    public TaskConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.qiang.taskmanager.index;
+
+import java.util.Arrays;
+
+/**
+ * 倒排表
+ * 使用有序的long数组保存任务ID，避免装箱集合的对象开销
+ */
+final class LongPostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * 添加任务ID，已存在时忽略
+     * 新任务ID通常递增，直接追加到末尾
+     * @param id 任务ID
+     */
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * 删除任务ID
+     * @param id 任务ID
+     */
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        // 删除较多时收缩数组
+        if (ids.length > INITIAL_CAPACITY && size < ids.length / 4) {
+            ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int capacity() {
+        return ids.length;
+    }
+
+    /**
+     * 构建完成后去掉多余容量
+     */
+    void trim() {
+        if (ids.length > size && ids.length > INITIAL_CAPACITY) {
+            ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, size));
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.qiang.taskmanager.index;
+
+/**
+ * 任务ID到标题的映射
+ * 使用开放寻址把ID和标题分别保存在long数组和String数组中，避免HashMap节点和Long装箱的对象开销
+ */
+final class LongStringMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private String[] values = new String[INITIAL_CAPACITY]; // null表示空槽位
+    private int size;
+
+    String get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 保存标题
+     * @param key 任务ID
+     * @param value 标题，不能为null
+     * @return 原来的标题，不存在时返回null
+     */
+    String put(long key, String value) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                String old = values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        // 负载因子超过0.75时扩容，保证探测链总能遇到空槽位
+        if (size * 4L > keys.length * 3L) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * 删除标题
+     * @param key 任务ID
+     * @return 被删除的标题，不存在时返回null
+     */
+    String remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        String old = values[i];
+        if (old == null) {
+            return null;
+        }
+        // 把同一探测链上后面的元素前移填补空位，不使用删除标记，查找不会因空位提前结束
+        int hole = i;
+        for (int j = (hole + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = null;
+        size--;
+        return old;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 槽位数组占用的内存（估算值）
+     * @return long键 + 压缩指针
+     */
+    long tableBytes() {
+        return keys.length * 12L;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        String[] oldValues = values;
+        keys = new long[capacity];
+        values = new String[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = slot(oldKeys[i], mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    // 递增的ID打散到各个槽位
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
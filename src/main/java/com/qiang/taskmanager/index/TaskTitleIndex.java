@@ -0,0 +1,375 @@
+package com.qiang.taskmanager.index;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 任务标题三元组倒排索引
+ * 启动时流式加载全部标题，之后随任务变更事件增量维护；标题搜索先通过索引得到候选ID，再到数据库中校验和分页
+ */
+@Component
+@Slf4j
+public class TaskTitleIndex implements MeterBinder {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    // HashMap节点 + Long键 + 倒排表对象 + long数组头 + 哈希表槽位
+    private static final long POSTING_OVERHEAD = 32 + 16 + 24 + 16 + 8;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Value("${task.title-index.enabled:true}")
+    private boolean enabled;
+
+    // 候选ID超过该数量时放弃使用索引，回退到LIKE查询
+    @Value("${task.title-index.max-candidates:5000}")
+    private int maxCandidates = 5000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile IndexData data = new IndexData();
+    private volatile boolean ready;
+
+    // 构建期间收到的变更事件，构建完成后重放
+    private boolean building;
+    private final List<TaskChangeEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * 应用启动完成后在后台线程中构建索引，构建完成前标题搜索回退到LIKE查询
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "task-title-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * 从数据库流式加载全部标题，重新构建索引
+     */
+    public void rebuild() {
+        synchronized (this) {
+            if (building) {
+                return;
+            }
+            building = true;
+            pendingEvents.clear();
+        }
+
+        long start = System.currentTimeMillis();
+        IndexData newData = new IndexData();
+        try {
+            taskMapper.scanTitles(context -> {
+                Task task = context.getResultObject();
+                newData.index(task.getId(), task.getTitle());
+            });
+            newData.trim();
+        } catch (Exception e) {
+            log.error("构建任务标题索引失败，标题搜索将使用LIKE查询", e);
+            synchronized (this) {
+                building = false;
+                pendingEvents.clear();
+            }
+            return;
+        }
+
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                data = newData;
+                pendingEvents.forEach(this::apply);
+                pendingEvents.clear();
+                building = false;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("任务标题索引构建完成，耗时：{}ms，{}", System.currentTimeMillis() - start, footprint());
+    }
+
+    /**
+     * 根据任务变更增量维护索引，在事务提交后执行，回滚的写操作不会进入索引
+     * @param event 任务变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangeEvent event) {
+        synchronized (this) {
+            if (building) {
+                pendingEvents.add(event);
+            }
+            lock.writeLock().lock();
+            try {
+                apply(event);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 查询标题包含关键字的候选任务ID
+     * @param query 标题关键字
+     * @return 升序排列的候选任务ID；索引无法回答（未就绪、关键字过短、含通配符或候选过多）时返回null
+     */
+    public long[] candidates(String query) {
+        if (!ready || query == null || query.indexOf('%') >= 0 || query.indexOf('_') >= 0) {
+            return null;
+        }
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            IndexData current = data;
+            List<LongPostingList> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+                LongPostingList list = current.postings.get(gram(normalized, i));
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+            LongPostingList smallest = lists.get(0);
+            long[] result = new long[Math.min(smallest.size(), maxCandidates + 1)];
+            int count = 0;
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                if (!containsInAll(lists, id)) {
+                    continue;
+                }
+                // 三元组全部命中不代表连续出现，用保存的标题再校验一次
+                String title = current.titles.get(id);
+                if (title == null || !title.contains(normalized)) {
+                    continue;
+                }
+                if (count == maxCandidates) {
+                    return null;
+                }
+                result[count++] = id;
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引是否已构建完成
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 统计索引的内存占用（估算值）
+     * 读取增量维护时同步更新的计数，不遍历索引也不加锁
+     * @return 内存占用报告
+     */
+    public Footprint footprint() {
+        IndexData current = data;
+        return new Footprint((int) current.tasks.get(), (int) current.grams.get(),
+                current.postingEntries.get(), current.estimatedBytes.get());
+    }
+
+    /**
+     * 注册索引规模和内存占用指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("task.title.index.tasks", this, index -> index.data.tasks.get())
+                .description("已索引的任务数")
+                .register(registry);
+        Gauge.builder("task.title.index.posting.entries", this, index -> index.data.postingEntries.get())
+                .description("倒排表中的ID总数")
+                .register(registry);
+        Gauge.builder("task.title.index.memory", this, index -> index.data.estimatedBytes.get())
+                .description("索引占用内存估算值")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void apply(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                data.index(event.getTaskId(), event.getAfter().getTitle());
+                break;
+            case DELETED:
+                data.unindex(event.getTaskId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static boolean containsInAll(List<LongPostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 三个UTF-16字符压缩为一个long
+    private static long gram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32)
+                | ((long) text.charAt(offset + 1) << 16)
+                | text.charAt(offset + 2);
+    }
+
+    // 去掉重音符号并转为小写，近似MySQL默认排序规则下LIKE的大小写和重音不敏感
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引数据
+     * 增量维护时同步更新规模计数，指标读取计数即可，无需在读锁下遍历索引
+     */
+    private static final class IndexData {
+        private final Map<Long, LongPostingList> postings = new HashMap<>(); // 三元组 -> 任务ID倒排表
+        private final LongStringMap titles = new LongStringMap(); // 任务ID -> 归一化后的标题，用于增量删除和候选校验
+        private final AtomicLong tasks = new AtomicLong();
+        private final AtomicLong grams = new AtomicLong();
+        private final AtomicLong postingEntries = new AtomicLong();
+        private final AtomicLong estimatedBytes = new AtomicLong(titles.tableBytes());
+
+        void index(Long id, String title) {
+            if (id == null) {
+                return;
+            }
+            unindex(id);
+            if (title == null) {
+                return;
+            }
+            String normalized = normalize(title);
+            long tableBytes = titles.tableBytes();
+            titles.put(id, normalized);
+            long bytes = titles.tableBytes() - tableBytes + titleBytes(normalized);
+            long entries = 0;
+            for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+                long gram = gram(normalized, i);
+                LongPostingList list = postings.get(gram);
+                if (list == null) {
+                    list = new LongPostingList();
+                    postings.put(gram, list);
+                    grams.incrementAndGet();
+                    bytes += POSTING_OVERHEAD + (long) list.capacity() * 8;
+                }
+                int size = list.size();
+                int capacity = list.capacity();
+                list.add(id);
+                entries += list.size() - size;
+                bytes += (long) (list.capacity() - capacity) * 8;
+            }
+            tasks.incrementAndGet();
+            postingEntries.addAndGet(entries);
+            estimatedBytes.addAndGet(bytes);
+        }
+
+        void unindex(long id) {
+            String old = titles.remove(id);
+            if (old == null) {
+                return;
+            }
+            long bytes = -titleBytes(old);
+            long entries = 0;
+            for (int i = 0; i + GRAM_LENGTH <= old.length(); i++) {
+                long gram = gram(old, i);
+                LongPostingList list = postings.get(gram);
+                if (list == null) {
+                    continue;
+                }
+                int size = list.size();
+                int capacity = list.capacity();
+                list.remove(id);
+                entries += list.size() - size;
+                bytes += (long) (list.capacity() - capacity) * 8;
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                    grams.decrementAndGet();
+                    bytes -= POSTING_OVERHEAD + (long) list.capacity() * 8;
+                }
+            }
+            tasks.decrementAndGet();
+            postingEntries.addAndGet(entries);
+            estimatedBytes.addAndGet(bytes);
+        }
+
+        // 构建完成后去掉倒排表的多余容量
+        void trim() {
+            long bytes = 0;
+            for (LongPostingList list : postings.values()) {
+                int capacity = list.capacity();
+                list.trim();
+                bytes += (long) (list.capacity() - capacity) * 8;
+            }
+            estimatedBytes.addAndGet(bytes);
+        }
+
+        // String对象 + 字符数组
+        private static long titleBytes(String title) {
+            return 24 + 16 + (long) title.length() * 2;
+        }
+    }
+
+    /**
+     * 索引内存占用报告
+     */
+    @Getter
+    public static class Footprint {
+        private final int tasks; // 已索引任务数
+        private final int grams; // 三元组数
+        private final long postingEntries; // 倒排表中的ID总数
+        private final long estimatedBytes; // 估算内存占用
+
+        public Footprint(int tasks, int grams, long postingEntries, long estimatedBytes) {
+            this.tasks = tasks;
+            this.grams = grams;
+            this.postingEntries = postingEntries;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("任务数：%d，三元组数：%d，倒排ID总数：%d，估算内存：%.1fMB",
+                    tasks, grams, postingEntries, estimatedBytes / 1024.0 / 1024.0);
+        }
+    }
+}
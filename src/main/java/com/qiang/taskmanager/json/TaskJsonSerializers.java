@@ -0,0 +1,143 @@
+package com.qiang.taskmanager.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.Result;
+import com.qiang.taskmanager.entity.Task;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 高频响应对象的序列化器
+ * 按字段声明顺序直接写出，字段名预先编码为SerializedString，省去反射BeanSerializer的属性遍历和名称编码；
+ * 输出与默认的Bean序列化逐字节一致（字段顺序、null值、LocalDateTime格式），修改实体字段时需同步修改这里，
+ * TaskJsonSerializersTest会对比两者的输出
+ */
+@JsonComponent
+public class TaskJsonSerializers {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    private static final SerializableString CODE = new SerializedString("code");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString DATA = new SerializedString("data");
+
+    private static final SerializableString LIST = new SerializedString("list");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString NEXT_CURSOR = new SerializedString("nextCursor");
+    private static final SerializableString HAS_NEXT = new SerializedString("hasNext");
+
+    /**
+     * Task序列化器
+     */
+    public static class TaskSerializer extends StdSerializer<Task> {
+
+        public TaskSerializer() {
+            super(Task.class);
+        }
+
+        @Override
+        public void serialize(Task task, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(task);
+            gen.writeFieldName(ID);
+            writeNumber(gen, task.getId());
+            gen.writeFieldName(TITLE);
+            gen.writeString(task.getTitle());
+            gen.writeFieldName(STATUS);
+            gen.writeString(task.getStatus());
+            gen.writeFieldName(CREATED_AT);
+            // 时间格式沿用ObjectMapper中注册的JavaTimeModule配置
+            provider.defaultSerializeValue(task.getCreatedAt(), gen);
+            gen.writeFieldName(UPDATED_AT);
+            provider.defaultSerializeValue(task.getUpdatedAt(), gen);
+            gen.writeFieldName(VERSION);
+            writeNumber(gen, task.getVersion());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Result序列化器，data按运行时类型序列化，与默认行为一致
+     */
+    @SuppressWarnings("rawtypes")
+    public static class ResultSerializer extends StdSerializer<Result> {
+
+        public ResultSerializer() {
+            super(Result.class);
+        }
+
+        @Override
+        public void serialize(Result result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(result);
+            gen.writeFieldName(CODE);
+            gen.writeNumber(result.getCode());
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(result.getMessage());
+            gen.writeFieldName(DATA);
+            provider.defaultSerializeValue(result.getData(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * CursorPage序列化器，元素为Task时直接调用TaskSerializer
+     */
+    @SuppressWarnings("rawtypes")
+    public static class CursorPageSerializer extends StdSerializer<CursorPage> {
+
+        private final TaskSerializer taskSerializer = new TaskSerializer();
+
+        public CursorPageSerializer() {
+            super(CursorPage.class);
+        }
+
+        @Override
+        public void serialize(CursorPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(LIST);
+            writeList(page.getList(), gen, provider);
+            gen.writeFieldName(SIZE);
+            gen.writeNumber(page.getSize());
+            gen.writeFieldName(NEXT_CURSOR);
+            gen.writeString(page.getNextCursor());
+            gen.writeFieldName(HAS_NEXT);
+            gen.writeBoolean(page.isHasNext());
+            gen.writeEndObject();
+        }
+
+        private void writeList(List<?> list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (list == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartArray(list, list.size());
+            for (Object element : list) {
+                if (element instanceof Task) {
+                    taskSerializer.serialize((Task) element, gen, provider);
+                } else {
+                    provider.defaultSerializeValue(element, gen);
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.qiang.taskmanager.mapper;
 
 import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.entity.TaskTombstone;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -12,18 +16,66 @@ public interface TaskMapper {
     @Select("SELECT * FROM task")
     List<Task> findAll();
 
+    // 按ID顺序逐行读取全部任务，用于流式导出
+    @Select("SELECT * FROM task ORDER BY id")
+    @Options(fetchSize = 1000)
+    Cursor<Task> scanAll();
+
     @Select("SELECT * FROM task WHERE id = #{id}")
     Task findById(Long id);
 
-    @Insert("INSERT INTO task(title, status, created_at) VALUES(#{title}, #{status}, #{createdAt})")
+    @Select("SELECT EXISTS(SELECT 1 FROM task WHERE id = #{id})")
+    boolean existsById(Long id);
+
+    @Insert("INSERT INTO task(title, status, created_at, updated_at, version) VALUES(#{title}, #{status}, #{createdAt}, #{updatedAt}, #{version})")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(Task task);
 
-    @Update("UPDATE task SET title = #{title}, status = #{status} WHERE id = #{id}")
-    void update(Task task);
+    // 多行插入，生成的ID按顺序回填到每个任务
+    @Insert({"<script>",
+            "INSERT INTO task(title, status, created_at, updated_at, version) VALUES",
+            "<foreach collection='list' item='task' separator=','>(#{task.title}, #{task.status}, #{task.createdAt}, #{task.updatedAt}, #{task.version})</foreach>",
+            "</script>"})
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    void insertBatch(List<Task> tasks);
+
+    // 返回受影响的行数，0表示任务不存在或版本不一致
+    @Update({"<script>",
+            "UPDATE task SET title = #{title}, status = #{status}, updated_at = #{updatedAt}, version = version + 1 WHERE id = #{id}",
+            "<if test='version != null'>AND version = #{version}</if>",
+            "</script>"})
+    int update(Task task);
+
+    // 按ID批量修改状态，只统计状态实际发生变化的行
+    @Update({"<script>",
+            "UPDATE task SET status = #{toStatus}, updated_at = #{updatedAt}, version = version + 1 WHERE id IN",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "<if test='fromStatus != null'>AND status = #{fromStatus}</if>",
+            "AND status &lt;&gt; #{toStatus}",
+            "</script>"})
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("fromStatus") String fromStatus,
+                          @Param("toStatus") String toStatus, @Param("updatedAt") LocalDateTime updatedAt);
 
+    // 查询指定状态（及创建时间之前）的任务ID，用于分块批量修改
+    @Select({"<script>",
+            "SELECT id FROM task WHERE status = #{status}",
+            "<if test='createdBefore != null'>AND created_at &lt; #{createdBefore}</if>",
+            "LIMIT #{limit}",
+            "</script>"})
+    List<Long> findIdsByStatus(@Param("status") String status, @Param("createdBefore") LocalDateTime createdBefore,
+                               @Param("limit") int limit);
+
+    // 返回受影响的行数，0表示任务不存在
     @Delete("DELETE FROM task WHERE id = #{id}")
-    void deleteById(Long id);
+    int deleteById(Long id);
+
+    // 记录删除墓碑，需与deleteById在同一事务中执行
+    @Insert("INSERT INTO task_tombstone(task_id, deleted_at) VALUES(#{taskId}, #{deletedAt})")
+    void insertTombstone(@Param("taskId") Long taskId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // 删除早于指定时间的墓碑，每次最多删除limit行，返回删除的行数
+    @Delete("DELETE FROM task_tombstone WHERE deleted_at < #{before} LIMIT #{limit}")
+    int deleteTombstonesBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
 
     // 根据标题模糊查询任务
     @Select("SELECT * FROM task WHERE title LIKE CONCAT('%', #{title}, '%')")
@@ -32,4 +84,73 @@ public interface TaskMapper {
     // 根据状态查询任务
     @Select("SELECT * FROM task WHERE status = #{status}")
     List<Task> findByStatus(String status);
-}
\ No newline at end of file
+
+    // 在标题索引给出的候选ID中按标题模糊查询任务
+    @Select({"<script>",
+            "SELECT * FROM task WHERE id IN",
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "AND title LIKE CONCAT('%', #{title}, '%') ORDER BY id",
+            "</script>"})
+    List<Task> findByIdsAndTitleLike(@Param("ids") long[] ids, @Param("title") String title);
+
+    // 流式读取全部任务的ID和标题，用于构建标题索引
+    @Select("SELECT id, title FROM task")
+    @Options(fetchSize = 1000)
+    @ResultType(Task.class)
+    void scanTitles(ResultHandler<Task> handler);
+
+    @Select("SELECT COUNT(*) FROM task")
+    long countAll();
+
+    @Select("SELECT COUNT(*) FROM task WHERE status = #{status}")
+    long countByStatus(String status);
+
+    @Select("SELECT COUNT(*) FROM task WHERE title LIKE CONCAT('%', #{title}, '%')")
+    long countByTitleLike(String title);
+
+    // 游标分页查询任务，按(created_at, id)排序，取游标之后的limit条
+    @Select({"<script>",
+            "SELECT * FROM task",
+            "<where>",
+            "<if test='createdAt != null'>created_at &gt;= #{createdAt} AND (created_at &gt; #{createdAt} OR id &gt; #{id})</if>",
+            "</where>",
+            "ORDER BY created_at, id LIMIT #{limit}",
+            "</script>"})
+    List<Task> findAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, @Param("limit") int limit);
+
+    // 根据标题模糊查询任务（游标分页）
+    @Select({"<script>",
+            "SELECT * FROM task WHERE title LIKE CONCAT('%', #{title}, '%')",
+            "<if test='createdAt != null'>AND created_at &gt;= #{createdAt} AND (created_at &gt; #{createdAt} OR id &gt; #{id})</if>",
+            "ORDER BY created_at, id LIMIT #{limit}",
+            "</script>"})
+    List<Task> findByTitleLikeAfter(@Param("title") String title, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id, @Param("limit") int limit);
+
+    // 根据状态查询任务（游标分页）
+    @Select({"<script>",
+            "SELECT * FROM task WHERE status = #{status}",
+            "<if test='createdAt != null'>AND created_at &gt;= #{createdAt} AND (created_at &gt; #{createdAt} OR id &gt; #{id})</if>",
+            "ORDER BY created_at, id LIMIT #{limit}",
+            "</script>"})
+    List<Task> findByStatusAfter(@Param("status") String status, @Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id, @Param("limit") int limit);
+
+    // 增量同步：查询(updated_at, id)位于(since, until)区间的任务，按(updated_at, id)排序
+    @Select({"<script>",
+            "SELECT * FROM task WHERE updated_at &lt; #{until}",
+            "<if test='since != null'>AND updated_at &gt;= #{since} AND (updated_at &gt; #{since} OR id &gt; #{id})</if>",
+            "ORDER BY updated_at, id LIMIT #{limit}",
+            "</script>"})
+    List<Task> findChangedBetween(@Param("since") LocalDateTime since, @Param("id") Long id,
+                                  @Param("until") LocalDateTime until, @Param("limit") int limit);
+
+    // 增量同步：查询(deleted_at, task_id)位于(since, until)区间的墓碑，按(deleted_at, task_id)排序
+    @Select({"<script>",
+            "SELECT task_id, deleted_at FROM task_tombstone WHERE deleted_at &lt; #{until}",
+            "<if test='since != null'>AND deleted_at &gt;= #{since} AND (deleted_at &gt; #{since} OR task_id &gt; #{id})</if>",
+            "ORDER BY deleted_at, task_id LIMIT #{limit}",
+            "</script>"})
+    List<TaskTombstone> findTombstonesBetween(@Param("since") LocalDateTime since, @Param("id") Long id,
+                                              @Param("until") LocalDateTime until, @Param("limit") int limit);
+}
@@ -0,0 +1,22 @@
+package com.qiang.taskmanager.monitor;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢查询样本
+ */
+@Data
+public class SlowQuery {
+    private String statement; // MappedStatement ID
+    private String sql; // 绑定参数前的SQL
+    private List<String> parameters; // 按占位符顺序的参数值，敏感参数已脱敏
+    private double elapsedMillis; // 执行耗时
+    private String error; // 执行失败时的异常信息
+    private LocalDateTime capturedAt; // 采样时间
+    private List<Map<String, Object>> explain; // EXPLAIN结果，每行一个Map
+    private String explainError; // EXPLAIN失败时的异常信息
+}
@@ -0,0 +1,38 @@
+package com.qiang.taskmanager.monitor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 慢查询管理端点
+ * GET /actuator/slowqueries 查看最近的慢查询样本，DELETE 清空样本
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    @Autowired
+    private SlowQuerySampler slowQuerySampler;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("thresholdMillis", slowQuerySampler.getThresholdMillis());
+        report.put("slow", slowQuerySampler.getSlowCount());
+        report.put("sampled", slowQuerySampler.getSampledCount());
+        report.put("dropped", slowQuerySampler.getDroppedCount());
+        report.put("samples", slowQuerySampler.samples());
+        return report;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQuerySampler.clear();
+    }
+}
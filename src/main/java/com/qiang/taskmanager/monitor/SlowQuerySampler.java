@@ -0,0 +1,307 @@
+package com.qiang.taskmanager.monitor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 慢查询采样器
+ * 由StatementMetricsInterceptor在每条语句执行后调用，耗时超过阈值的语句按限流规则采样：
+ * 全局每分钟最多采样固定次数，同一语句在冷却期内只采样一次，
+ * 采样在调用线程中只复制SQL和参数，EXPLAIN在单线程的后台线程池中执行，队列满时直接丢弃，
+ * 慢查询集中出现时不会给数据库带来额外的压力
+ */
+@Component
+@Slf4j
+public class SlowQuerySampler implements MeterBinder {
+
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final String MASKED = "******";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${task.slow-query.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${task.slow-query.threshold-millis:200}")
+    private long thresholdMillis = 200;
+
+    // 全局采样速率上限，采样按固定间隔放行
+    @Value("${task.slow-query.max-samples-per-minute:6}")
+    private int maxSamplesPerMinute = 6;
+
+    // 同一语句两次采样的最小间隔
+    @Value("${task.slow-query.statement-cooldown-seconds:300}")
+    private long statementCooldownSeconds = 300;
+
+    @Value("${task.slow-query.buffer-size:100}")
+    private int bufferSize = 100;
+
+    @Value("${task.slow-query.explain-enabled:true}")
+    private boolean explainEnabled = true;
+
+    @Value("${task.slow-query.explain-timeout-seconds:5}")
+    private int explainTimeoutSeconds = 5;
+
+    private long thresholdNanos;
+    private long sampleIntervalNanos;
+    private final AtomicLong nextSampleNanos = new AtomicLong(Long.MIN_VALUE);
+    private Cache<String, Boolean> recentStatements; // 冷却期内已采样的语句
+    private ThreadPoolExecutor explainPool;
+    private Executor explainExecutor;
+
+    private SlowQuery[] samples; // 环形缓冲区
+    private long written; // 写入总数，由this保护
+
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        sampleIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, maxSamplesPerMinute);
+        recentStatements = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofSeconds(statementCooldownSeconds))
+                .build();
+        samples = new SlowQuery[bufferSize];
+        // 单线程、小队列：同一时间最多一条EXPLAIN，积压的采样直接丢弃
+        explainPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        explainExecutor = explainPool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainPool.shutdownNow();
+    }
+
+    /**
+     * 注册慢查询数、采样数和丢弃数指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mybatis.slow-query", slowCount, LongAdder::sum)
+                .description("耗时超过阈值的语句数")
+                .register(registry);
+        FunctionCounter.builder("mybatis.slow-query.sampled", sampledCount, LongAdder::sum)
+                .description("被采样的慢查询数")
+                .register(registry);
+        FunctionCounter.builder("mybatis.slow-query.dropped", droppedCount, LongAdder::sum)
+                .description("因EXPLAIN队列已满被丢弃的采样数")
+                .register(registry);
+    }
+
+    /**
+     * 语句执行完成后调用，耗时未超过阈值时立即返回
+     * @param mappedStatement 语句
+     * @param args Executor方法的参数
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @param error 执行失败时的异常，成功时为null
+     */
+    public void onStatement(MappedStatement mappedStatement, Object[] args, long elapsedNanos, Throwable error) {
+        if (!enabled || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        slowCount.increment();
+        String statementId = mappedStatement.getId();
+        if (recentStatements.getIfPresent(statementId) != null || !tryAcquire()) {
+            return;
+        }
+        recentStatements.put(statementId, Boolean.TRUE);
+
+        Object parameter = args[1];
+        // PageHelper改写后的分页和COUNT语句通过6个参数的query传入BoundSql
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : mappedStatement.getBoundSql(parameter);
+        List<Object> values = parameterValues(mappedStatement.getConfiguration(), boundSql, parameter);
+
+        SlowQuery slowQuery = new SlowQuery();
+        slowQuery.setStatement(statementId);
+        slowQuery.setSql(boundSql.getSql());
+        slowQuery.setParameters(describe(boundSql.getParameterMappings(), values));
+        slowQuery.setElapsedMillis(elapsedNanos / 1_000_000.0);
+        slowQuery.setError(error == null ? null : error.toString());
+        slowQuery.setCapturedAt(LocalDateTime.now());
+
+        boolean explain = explainEnabled && mappedStatement.getSqlCommandType() == SqlCommandType.SELECT;
+        try {
+            explainExecutor.execute(() -> {
+                if (explain) {
+                    explain(slowQuery, values);
+                }
+                add(slowQuery);
+            });
+            sampledCount.increment();
+        } catch (RejectedExecutionException e) {
+            droppedCount.increment();
+        }
+    }
+
+    // 按固定间隔放行，CAS失败说明其他线程已取得本次采样机会
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long next = nextSampleNanos.get();
+        return (next == Long.MIN_VALUE || now - next >= 0)
+                && nextSampleNanos.compareAndSet(next, now + sampleIntervalNanos);
+    }
+
+    // 与DefaultParameterHandler的取值规则一致
+    private static List<Object> parameterValues(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameter == null) {
+                values.add(null);
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                values.add(parameter);
+            } else {
+                values.add(configuration.newMetaObject(parameter).getValue(property));
+            }
+        }
+        return values;
+    }
+
+    // 参数名包含password的值不记录，过长的值截断
+    private static List<String> describe(List<ParameterMapping> mappings, List<Object> values) {
+        List<String> descriptions = new ArrayList<>(values.size());
+        int index = 0;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            Object value = values.get(index++);
+            String description;
+            if (mapping.getProperty().toLowerCase(Locale.ROOT).contains("password")) {
+                description = MASKED;
+            } else if (value instanceof long[]) {
+                description = Arrays.toString((long[]) value);
+            } else {
+                description = String.valueOf(value);
+            }
+            if (description.length() > MAX_PARAMETER_LENGTH) {
+                description = description.substring(0, MAX_PARAMETER_LENGTH) + "...";
+            }
+            descriptions.add(description);
+        }
+        return descriptions;
+    }
+
+    // EXPLAIN只解析不执行语句，使用独立连接，不受原事务影响
+    private void explain(SlowQuery slowQuery, List<Object> values) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + slowQuery.getSql())) {
+            statement.setQueryTimeout(explainTimeoutSeconds);
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+            List<Map<String, Object>> rows = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        row.put(metaData.getColumnLabel(column), resultSet.getObject(column));
+                    }
+                    rows.add(row);
+                }
+            }
+            slowQuery.setExplain(rows);
+        } catch (Exception e) {
+            log.warn("慢查询EXPLAIN失败，语句：{}", slowQuery.getStatement(), e);
+            slowQuery.setExplainError(e.toString());
+        }
+    }
+
+    private synchronized void add(SlowQuery slowQuery) {
+        samples[(int) (written % samples.length)] = slowQuery;
+        written++;
+    }
+
+    /**
+     * 获取缓冲区中的慢查询样本
+     * @return 慢查询样本，最新的在前
+     */
+    public synchronized List<SlowQuery> samples() {
+        int size = (int) Math.min(written, samples.length);
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (long i = written - 1; i >= written - size; i--) {
+            result.add(samples[(int) (i % samples.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * 清空缓冲区和语句冷却记录
+     */
+    public synchronized void clear() {
+        Arrays.fill(samples, null);
+        written = 0;
+        recentStatements.invalidateAll();
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public long getSampledCount() {
+        return sampledCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
@@ -1,23 +1,57 @@
 package com.qiang.taskmanager.service;
 
 import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.common.BatchResult;
+import com.qiang.taskmanager.common.BulkStatusRequest;
+import com.qiang.taskmanager.common.CountMode;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.TaskChanges;
 import com.qiang.taskmanager.entity.Task;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService {
     List<Task> findAll();
     Task findById(Long id);
     void createTask(Task task);
+
+    // 批量创建任务，partial为true时跳过校验失败的任务
+    BatchResult createTasks(List<Task> tasks, boolean partial);
     void updateTask(Task task);
     void deleteById(Long id);
 
+    // 按ID列表或条件批量修改任务状态，返回实际修改的行数
+    int updateStatusInBulk(BulkStatusRequest request);
+
+    // 逐条读取全部任务并交给consumer处理，不在内存中保留整个结果集
+    void streamAll(Consumer<Task> consumer);
+
     // 分页查询所有任务
     PageInfo<Task> findTasksWithPage(int pageNum, int pageSize);
 
+    // 分页查询所有任务，指定总数统计方式
+    PageInfo<Task> findTasksWithPage(int pageNum, int pageSize, CountMode countMode);
+
     // 根据标题模糊查询任务（分页）
     PageInfo<Task> findTasksByTitleWithPage(String title, int pageNum, int pageSize);
 
+    PageInfo<Task> findTasksByTitleWithPage(String title, int pageNum, int pageSize, CountMode countMode);
+
     // 根据状态查询任务（分页）
     PageInfo<Task> findTasksByStatusWithPage(String status, int pageNum, int pageSize);
-}
\ No newline at end of file
+
+    PageInfo<Task> findTasksByStatusWithPage(String status, int pageNum, int pageSize, CountMode countMode);
+
+    // 游标分页查询所有任务
+    CursorPage<Task> findTasksWithCursor(String cursor, int pageSize);
+
+    // 根据标题模糊查询任务（游标分页）
+    CursorPage<Task> findTasksByTitleWithCursor(String title, String cursor, int pageSize);
+
+    // 根据状态查询任务（游标分页）
+    CursorPage<Task> findTasksByStatusWithCursor(String status, String cursor, int pageSize);
+
+    // 增量同步：返回令牌之后新建、修改或删除的任务，since为空时从头开始
+    TaskChanges findChanges(String since, int pageSize);
+}
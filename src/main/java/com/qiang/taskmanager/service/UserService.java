@@ -2,9 +2,10 @@ package com.qiang.taskmanager.service;
 
 import com.qiang.taskmanager.entity.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
-public interface UserService extends UserDetailsService {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
     User findById(Long id);
     User findByUsername(String username);
     void register(User user);
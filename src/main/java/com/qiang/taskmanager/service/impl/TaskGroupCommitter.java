@@ -0,0 +1,276 @@
+package com.qiang.taskmanager.service.impl;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 任务插入的组提交
+ * 并发的createTask请求进入队列，由单个写线程在linger时间内或凑满max-batch-size后合并为一条多行INSERT，
+ * 在同一事务中提交，提交后才完成各请求的future，调用方看到成功时数据已经持久化，与单独提交一致；
+ * 批量插入失败时逐个重试，一个无效任务不会导致同批其他任务失败；
+ * 任务创建事件由写线程在提交后发布，调用方等待超时而任务仍然提交时，缓存和索引也能收到事件
+ */
+@Slf4j
+@Component
+public class TaskGroupCommitter implements MeterBinder {
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${task.group-commit.enabled:false}")
+    private boolean enabled;
+
+    // 收到第一个请求后最多等待的时间，为0时只合并已在队列中的请求
+    @Value("${task.group-commit.linger-millis:2}")
+    private long lingerMillis = 2;
+
+    @Value("${task.group-commit.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    // 等待写入的请求数上限，队列满时直接拒绝
+    @Value("${task.group-commit.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${task.group-commit.timeout-seconds:5}")
+    private int timeoutSeconds = 5;
+
+    // 调用方等待写入的最长时间，需覆盖排队时间、批量插入和失败后逐个重试的时间
+    @Value("${task.group-commit.wait-timeout-millis:10000}")
+    private long waitTimeoutMillis = 10000;
+
+    private BlockingQueue<PendingInsert> queue;
+    private TransactionTemplate transaction;
+    private Thread writer;
+    private volatile boolean running;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout(timeoutSeconds);
+        running = true;
+        writer = new Thread(this::run, "task-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停止接收新请求，写完队列中剩余的请求后退出
+     * 超时仍未写入的请求直接失败，不让调用方一直等待
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingInsert> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> pending.future.completeExceptionally(new RejectedExecutionException("任务写入已停止")));
+    }
+
+    /**
+     * 注册批大小和队列长度指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        batchSizes = DistributionSummary.builder("task.group-commit.batch.size")
+                .description("每次提交合并的任务数")
+                .register(registry);
+        Gauge.builder("task.group-commit.queue", queue, BlockingQueue::size)
+                .description("等待写入的任务数")
+                .register(registry);
+    }
+
+    /**
+     * 是否开启组提交
+     * @return 开启时返回true
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 提交待插入的任务
+     * @param task 任务，提交成功后回填ID
+     * @return 事务提交后完成，结果为生成的任务ID
+     * @throws RejectedExecutionException 队列已满或已停止
+     */
+    public CompletableFuture<Long> submit(Task task) {
+        PendingInsert pending = new PendingInsert(task);
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException("任务写入队列已满");
+        }
+        // 检查通过后才停止时，写线程和shutdown可能都已取完队列，请求不会再有人处理
+        if (!running && queue.remove(pending)) {
+            throw new RejectedExecutionException("任务写入已停止");
+        }
+        return pending.future;
+    }
+
+    /**
+     * 提交待插入的任务并等待事务提交
+     * 超时后取消尚未开始写入的请求；已在写入中的请求仍可能提交成功
+     * @param task 任务，提交成功后回填ID
+     * @return 生成的任务ID
+     * @throws RejectedExecutionException 队列已满或已停止
+     * @throws ExecutionException 插入失败
+     * @throws TimeoutException 超过wait-timeout-millis仍未提交
+     * @throws InterruptedException 等待时被中断
+     */
+    public Long insert(Task task) throws ExecutionException, TimeoutException, InterruptedException {
+        CompletableFuture<Long> future = submit(task);
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            // 被中断时也写入已收集的请求，不让调用方一直等待
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        // running置为false之前通过检查的请求可能在循环结束后才入队
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    // 先取走已在队列中的请求，不足max-batch-size时在linger时间内继续等待
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        // 调用方已超时放弃的请求不再写入
+        batch.removeIf(pending -> pending.future.isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+        List<Task> tasks = new ArrayList<>(batch.size());
+        batch.forEach(pending -> tasks.add(pending.task));
+        try {
+            transaction.executeWithoutResult(status -> taskMapper.insertBatch(tasks));
+            batch.forEach(this::committed);
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("批量插入{}个任务失败，逐个重试", batch.size(), e);
+        }
+        for (PendingInsert pending : batch) {
+            // 回滚前可能已回填了ID
+            pending.task.setId(null);
+            try {
+                transaction.executeWithoutResult(status -> taskMapper.insert(pending.task));
+            } catch (Exception e) {
+                pending.future.completeExceptionally(e);
+                continue;
+            }
+            committed(pending);
+        }
+    }
+
+    // 先发布创建事件再完成future，调用方返回时缓存和索引已包含新任务；监听器异常不影响已提交的结果
+    private void committed(PendingInsert pending) {
+        try {
+            eventPublisher.publishEvent(TaskChangeEvent.created(pending.task));
+        } catch (Exception e) {
+            log.error("发布任务创建事件失败，任务ID：{}", pending.task.getId(), e);
+        }
+        pending.future.complete(pending.task.getId());
+    }
+
+    /**
+     * 等待写入的任务
+     */
+    private static class PendingInsert {
+        private final Task task;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingInsert(Task task) {
+            this.task = task;
+        }
+    }
+}
@@ -1,18 +1,49 @@
 package com.qiang.taskmanager.service.impl;
 
+import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.cache.TaskCountCache;
+import com.qiang.taskmanager.cache.TaskNearCache;
+import com.qiang.taskmanager.common.BatchResult;
+import com.qiang.taskmanager.common.BulkStatusRequest;
+import com.qiang.taskmanager.common.CountMode;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.TaskChanges;
 import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.entity.TaskTombstone;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import com.qiang.taskmanager.index.TaskTitleIndex;
 import com.qiang.taskmanager.mapper.TaskMapper;
 import com.qiang.taskmanager.service.TaskService;
+import com.qiang.taskmanager.exception.InvalidParameterException;
+import com.qiang.taskmanager.exception.SyncTokenExpiredException;
+import com.qiang.taskmanager.exception.TaskConflictException;
 import com.qiang.taskmanager.exception.TaskNotFoundException;
 import com.qiang.taskmanager.exception.TaskOperationException;
+import com.qiang.taskmanager.util.SyncToken;
+import com.qiang.taskmanager.util.TaskCursor;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.text.Normalizer;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 @Service
 public class TaskServiceImpl implements TaskService {
@@ -20,6 +51,53 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private TaskMapper taskMapper;
 
+    @Autowired
+    private TaskCountCache taskCountCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TaskTitleIndex taskTitleIndex;
+
+    @Autowired
+    private TaskNearCache taskNearCache;
+
+    @Autowired
+    private TaskGroupCommitter groupCommitter;
+
+    // 游标分页每页最大数量
+    @Value("${task.page.max-size:100}")
+    private int maxPageSize = 100;
+
+    // 批量创建单次请求的最大任务数
+    @Value("${task.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
+
+    // 批量创建时每条INSERT语句包含的行数
+    @Value("${task.batch.chunk-size:200}")
+    private int batchChunkSize = 200;
+
+    // 批量修改状态时按ID列表修改的最大数量
+    @Value("${task.bulk-status.max-ids:10000}")
+    private int maxBulkIds = 10000;
+
+    // 批量修改状态时每条UPDATE语句修改的行数，每块单独提交以缩短行锁持有时间
+    @Value("${task.bulk-status.chunk-size:500}")
+    private int bulkChunkSize = 500;
+
+    // 增量同步每次返回的最大变更数
+    @Value("${task.sync.max-size:500}")
+    private int maxSyncSize = 500;
+
+    // 删除墓碑的保留天数，更早的同步令牌无法继续增量同步
+    @Value("${task.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays = 30;
+
+    // 修改时间在事务提交前生成，只返回早于当前时间减去该值的变更，避免漏掉提交较晚的写事务
+    @Value("${task.sync.safety-lag-millis:10000}")
+    private long syncSafetyLagMillis = 10000;
+
     @Override
     public List<Task> findAll() throws TaskOperationException {
         try {
@@ -32,7 +110,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public Task findById(Long id) throws TaskNotFoundException, TaskOperationException {
         try {
-            Task task = taskMapper.findById(id);
+            Task task = taskNearCache.get(id, taskMapper::findById);
             if (task == null) {
                 throw new TaskNotFoundException("任务不存在，ID: " + id);
             }
@@ -44,39 +122,226 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    /**
+     * 创建任务
+     * 开启组提交且不在外层事务中时，与其他并发请求合并为一次插入和提交，提交后才返回；
+     * 已在事务中时插入必须属于该事务，仍单独执行；组提交时创建事件由写线程在提交后发布
+     * @param task 任务
+     */
     @Override
     public void createTask(Task task) throws TaskOperationException {
         try {
-            task.setCreatedAt(LocalDateTime.now());
+            LocalDateTime now = LocalDateTime.now();
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            task.setVersion(0L);
+            if (groupCommitter.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+                groupCommitter.insert(task);
+                return;
+            }
             taskMapper.insert(task);
+        } catch (RejectedExecutionException e) {
+            throw e;
+        } catch (ExecutionException e) {
+            throw new TaskOperationException("创建任务失败", e.getCause());
+        } catch (TimeoutException e) {
+            throw new TaskOperationException("等待任务写入超时，任务可能稍后仍会创建", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskOperationException("创建任务被中断", e);
         } catch (Exception e) {
             throw new TaskOperationException("创建任务失败", e);
         }
+        eventPublisher.publishEvent(TaskChangeEvent.created(task));
     }
 
+    /**
+     * 批量创建任务
+     * 校验通过的任务按chunk-size分组，每组一条多行INSERT，全部在同一事务中提交
+     * @param tasks 任务列表
+     * @param partial 为true时跳过校验失败的任务并在结果中返回错误；为false时任一任务无效即整体失败
+     * @return 按请求顺序的任务ID和校验错误
+     */
     @Override
-    public void updateTask(Task task) throws TaskNotFoundException, TaskOperationException {
+    @Transactional
+    public BatchResult createTasks(List<Task> tasks, boolean partial) {
+        if (tasks == null || tasks.isEmpty()) {
+            throw new InvalidParameterException("任务列表不能为空");
+        }
+        if (tasks.size() > maxBatchSize) {
+            throw new InvalidParameterException("单次最多创建" + maxBatchSize + "个任务，实际为" + tasks.size());
+        }
+
+        BatchResult result = new BatchResult();
+        List<Task> valid = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            String error = validate(tasks.get(i));
+            if (error != null) {
+                result.getErrors().add(new BatchResult.ItemError(i, error));
+            } else {
+                valid.add(tasks.get(i));
+            }
+        }
+        if (!result.getErrors().isEmpty() && !partial) {
+            BatchResult.ItemError first = result.getErrors().get(0);
+            throw new InvalidParameterException("批量创建任务校验失败，共" + result.getErrors().size()
+                    + "个任务无效，下标" + first.getIndex() + "：" + first.getMessage());
+        }
+
         try {
-            Task existingTask = taskMapper.findById(task.getId());
-            if (existingTask == null) {
+            LocalDateTime now = LocalDateTime.now();
+            valid.forEach(task -> {
+                task.setCreatedAt(now);
+                task.setUpdatedAt(now);
+                task.setVersion(0L);
+            });
+            for (int from = 0; from < valid.size(); from += batchChunkSize) {
+                taskMapper.insertBatch(valid.subList(from, Math.min(from + batchChunkSize, valid.size())));
+            }
+        } catch (Exception e) {
+            throw new TaskOperationException("批量创建任务失败", e);
+        }
+        valid.forEach(task -> eventPublisher.publishEvent(TaskChangeEvent.created(task)));
+
+        // 校验失败的任务没有写入，ID保持为null
+        List<BatchResult.ItemError> errors = result.getErrors();
+        for (int i = 0, next = 0; i < tasks.size(); i++) {
+            boolean failed = next < errors.size() && errors.get(next).getIndex() == i;
+            if (failed) {
+                next++;
+            }
+            result.getIds().add(failed ? null : tasks.get(i).getId());
+        }
+        result.setCreated(valid.size());
+        return result;
+    }
+
+    private String validate(Task task) {
+        if (task == null) {
+            return "任务不能为空";
+        }
+        if (task.getTitle() == null || task.getTitle().isBlank()) {
+            return "标题不能为空";
+        }
+        if (task.getTitle().length() > 255) {
+            return "标题长度不能超过255";
+        }
+        if (task.getStatus() == null || task.getStatus().isBlank()) {
+            return "状态不能为空";
+        }
+        if (task.getStatus().length() > 32) {
+            return "状态长度不能超过32";
+        }
+        return null;
+    }
+
+    /**
+     * 更新任务
+     * 直接执行UPDATE并根据受影响行数判断结果；携带version时只在版本一致时更新，
+     * 更新失败后再查询一次区分任务不存在和版本冲突
+     * @param task 任务
+     */
+    @Override
+    public void updateTask(Task task) throws TaskNotFoundException, TaskConflictException, TaskOperationException {
+        try {
+            task.setUpdatedAt(LocalDateTime.now());
+            if (taskMapper.update(task) == 0) {
+                if (task.getVersion() != null && taskMapper.existsById(task.getId())) {
+                    throw new TaskConflictException("任务已被修改，请刷新后重试，ID: " + task.getId());
+                }
                 throw new TaskNotFoundException("任务不存在，无法更新，ID: " + task.getId());
             }
-            taskMapper.update(task);
-        } catch (TaskNotFoundException e) {
+            if (task.getVersion() != null) {
+                task.setVersion(task.getVersion() + 1);
+            }
+            eventPublisher.publishEvent(TaskChangeEvent.updated(null, task));
+        } catch (TaskNotFoundException | TaskConflictException e) {
             throw e;
         } catch (Exception e) {
             throw new TaskOperationException("更新任务失败，ID: " + task.getId(), e);
         }
     }
 
+    /**
+     * 批量修改任务状态
+     * 不在外层开启事务，每个分块的UPDATE单独提交；失败时已提交的分块不会回滚
+     * @param request 批量修改请求
+     * @return 实际修改的行数
+     */
     @Override
+    public int updateStatusInBulk(BulkStatusRequest request) {
+        List<Long> ids = request.getIds();
+        String fromStatus = request.getFromStatus();
+        String toStatus = request.getToStatus();
+        if (toStatus == null || toStatus.isBlank()) {
+            throw new InvalidParameterException("目标状态不能为空");
+        }
+        if (fromStatus != null && foldStatus(toStatus).equals(foldStatus(fromStatus))) {
+            throw new InvalidParameterException("原状态与目标状态相同: " + toStatus);
+        }
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (!byIds && (fromStatus == null || fromStatus.isBlank())) {
+            throw new InvalidParameterException("必须指定任务ID列表或原状态");
+        }
+        if (byIds && ids.size() > maxBulkIds) {
+            throw new InvalidParameterException("单次最多修改" + maxBulkIds + "个任务，实际为" + ids.size());
+        }
+
+        int affected = 0;
+        try {
+            if (byIds) {
+                for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+                    affected += updateStatusChunk(chunk, fromStatus, toStatus);
+                }
+            } else {
+                // 已修改的行不再满足条件，每次都从头取下一块
+                List<Long> chunk;
+                while (!(chunk = taskMapper.findIdsByStatus(fromStatus, request.getCreatedBefore(), bulkChunkSize)).isEmpty()) {
+                    int changed = updateStatusChunk(chunk, fromStatus, toStatus);
+                    // 一行都没有修改时再取仍是同一批ID，继续循环不会结束
+                    if (changed == 0) {
+                        break;
+                    }
+                    affected += changed;
+                }
+            }
+            return affected;
+        } catch (Exception e) {
+            throw new TaskOperationException("批量修改任务状态失败，已修改" + affected + "个任务", e);
+        }
+    }
+
+    // 按MySQL默认排序规则utf8mb4_0900_ai_ci比较，忽略大小写和重音，
+    // 只有大小写或重音不同的两个状态在SQL中相等，status <> #{toStatus}对所有行都不成立
+    private static String foldStatus(String status) {
+        return Normalizer.normalize(status, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private int updateStatusChunk(List<Long> ids, String fromStatus, String toStatus) {
+        int affected = taskMapper.updateStatusByIds(ids, fromStatus, toStatus, LocalDateTime.now());
+        if (affected > 0) {
+            eventPublisher.publishEvent(new TaskStatusBulkChangeEvent(new ArrayList<>(ids), fromStatus, toStatus, affected));
+        }
+        return affected;
+    }
+
+    /**
+     * 删除任务
+     * 同一事务中记录删除墓碑，增量同步据此向客户端返回删除记录
+     * @param id 任务ID
+     */
+    @Override
+    @Transactional
     public void deleteById(Long id) throws TaskNotFoundException, TaskOperationException {
         try {
-            Task task = taskMapper.findById(id);
-            if (task == null) {
+            if (taskMapper.deleteById(id) == 0) {
                 throw new TaskNotFoundException("任务不存在，无法删除，ID: " + id);
             }
-            taskMapper.deleteById(id);
+            taskMapper.insertTombstone(id, LocalDateTime.now());
+            eventPublisher.publishEvent(TaskChangeEvent.deleted(id, null));
         } catch (TaskNotFoundException e) {
             throw e;
         } catch (Exception e) {
@@ -84,13 +349,33 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    /**
+     * 通过MyBatis游标逐行读取全部任务
+     * 游标依赖打开的连接，需要在事务内消费完毕
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Task> consumer) {
+        try (Cursor<Task> cursor = taskMapper.scanAll()) {
+            cursor.forEach(consumer);
+        } catch (Exception e) {
+            throw new TaskOperationException("导出任务失败", e);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageInfo<Task> findTasksWithPage(int pageNum, int pageSize) {
+        return findTasksWithPage(pageNum, pageSize, CountMode.EXACT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageInfo<Task> findTasksWithPage(int pageNum, int pageSize, CountMode countMode) {
         try {
-            PageHelper.startPage(pageNum, pageSize);
+            PageHelper.startPage(pageNum, pageSize, countMode == CountMode.EXACT);
             List<Task> tasks = taskMapper.findAll();
-            return new PageInfo<>(tasks);
+            return toPageInfo(tasks, pageSize, countMode, taskCountCache::countAll);
         } catch (Exception e) {
             throw new TaskOperationException("分页查询任务失败", e);
         }
@@ -99,10 +384,26 @@ public class TaskServiceImpl implements TaskService {
     @Override
     @Transactional(readOnly = true)
     public PageInfo<Task> findTasksByTitleWithPage(String title, int pageNum, int pageSize) {
+        return findTasksByTitleWithPage(title, pageNum, pageSize, CountMode.EXACT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageInfo<Task> findTasksByTitleWithPage(String title, int pageNum, int pageSize, CountMode countMode) {
         try {
-            PageHelper.startPage(pageNum, pageSize);
+            // 索引能回答时只在候选ID中查询，避免前导通配符LIKE的全表扫描
+            long[] candidateIds = taskTitleIndex.candidates(title);
+            if (candidateIds != null) {
+                if (candidateIds.length == 0) {
+                    return new PageInfo<>(new Page<>(pageNum, pageSize));
+                }
+                PageHelper.startPage(pageNum, pageSize, countMode == CountMode.EXACT);
+                List<Task> tasks = taskMapper.findByIdsAndTitleLike(candidateIds, title);
+                return toPageInfo(tasks, pageSize, countMode, () -> candidateIds.length);
+            }
+            PageHelper.startPage(pageNum, pageSize, countMode == CountMode.EXACT);
             List<Task> tasks = taskMapper.findByTitleLike(title);
-            return new PageInfo<>(tasks);
+            return toPageInfo(tasks, pageSize, countMode, () -> taskCountCache.countByTitle(title));
         } catch (Exception e) {
             throw new TaskOperationException("根据标题分页查询任务失败", e);
         }
@@ -111,12 +412,168 @@ public class TaskServiceImpl implements TaskService {
     @Override
     @Transactional(readOnly = true)
     public PageInfo<Task> findTasksByStatusWithPage(String status, int pageNum, int pageSize) {
+        return findTasksByStatusWithPage(status, pageNum, pageSize, CountMode.EXACT);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageInfo<Task> findTasksByStatusWithPage(String status, int pageNum, int pageSize, CountMode countMode) {
         try {
-            PageHelper.startPage(pageNum, pageSize);
+            PageHelper.startPage(pageNum, pageSize, countMode == CountMode.EXACT);
             List<Task> tasks = taskMapper.findByStatus(status);
-            return new PageInfo<>(tasks);
+            return toPageInfo(tasks, pageSize, countMode, () -> taskCountCache.countByStatus(status));
         } catch (Exception e) {
             throw new TaskOperationException("根据状态分页查询任务失败", e);
         }
     }
+
+    /**
+     * 根据统计方式组装分页结果
+     * APPROX使用缓存的计数作为总数；NONE不统计总数（total为-1），按本页是否取满判断是否有下一页
+     */
+    @SuppressWarnings("unchecked")
+    private PageInfo<Task> toPageInfo(List<Task> tasks, int pageSize, CountMode countMode, LongSupplier approxTotal) {
+        if (countMode == CountMode.APPROX) {
+            long total = approxTotal.getAsLong();
+            if (tasks instanceof Page) {
+                // 在Page上设置总数，PageInfo据此计算总页数和导航页码
+                ((Page<Task>) tasks).setTotal(total);
+            }
+            PageInfo<Task> pageInfo = new PageInfo<>(tasks);
+            pageInfo.setTotal(total);
+            return pageInfo;
+        }
+        PageInfo<Task> pageInfo = new PageInfo<>(tasks);
+        if (countMode == CountMode.NONE) {
+            boolean hasNextPage = tasks.size() >= pageSize;
+            pageInfo.setHasNextPage(hasNextPage);
+            pageInfo.setIsLastPage(!hasNextPage);
+        }
+        return pageInfo;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Task> findTasksWithCursor(String cursor, int pageSize) {
+        TaskCursor position = TaskCursor.decode(cursor);
+        int size = clampPageSize(pageSize);
+        try {
+            List<Task> tasks = taskMapper.findAfter(createdAtOf(position), idOf(position), size + 1);
+            return toCursorPage(tasks, size);
+        } catch (Exception e) {
+            throw new TaskOperationException("游标分页查询任务失败", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Task> findTasksByTitleWithCursor(String title, String cursor, int pageSize) {
+        TaskCursor position = TaskCursor.decode(cursor);
+        int size = clampPageSize(pageSize);
+        try {
+            List<Task> tasks = taskMapper.findByTitleLikeAfter(title, createdAtOf(position), idOf(position), size + 1);
+            return toCursorPage(tasks, size);
+        } catch (Exception e) {
+            throw new TaskOperationException("根据标题游标分页查询任务失败", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Task> findTasksByStatusWithCursor(String status, String cursor, int pageSize) {
+        TaskCursor position = TaskCursor.decode(cursor);
+        int size = clampPageSize(pageSize);
+        try {
+            List<Task> tasks = taskMapper.findByStatusAfter(status, createdAtOf(position), idOf(position), size + 1);
+            return toCursorPage(tasks, size);
+        } catch (Exception e) {
+            throw new TaskOperationException("根据状态游标分页查询任务失败", e);
+        }
+    }
+
+    // 限制每页数量在[1, maxPageSize]之间
+    private int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, maxPageSize));
+    }
+
+    private LocalDateTime createdAtOf(TaskCursor position) {
+        return position != null ? position.getCreatedAt() : null;
+    }
+
+    private Long idOf(TaskCursor position) {
+        return position != null ? position.getId() : null;
+    }
+
+    // 多查询一条用于判断是否有下一页
+    private CursorPage<Task> toCursorPage(List<Task> tasks, int size) {
+        if (tasks.size() <= size) {
+            return CursorPage.of(tasks, null);
+        }
+        List<Task> page = tasks.subList(0, size);
+        return CursorPage.of(page, TaskCursor.of(page.get(size - 1)).encode());
+    }
+
+    /**
+     * 增量同步
+     * 分别按(updated_at, id)查询修改过的任务、按(deleted_at, task_id)查询墓碑，两者归并后取前size条，
+     * 开销只与变更数量有关；首次同步（没有令牌）时客户端没有本地数据，不查询墓碑
+     * @param since 上一次同步返回的令牌，为空时从头开始
+     * @param pageSize 每次返回的最大变更数
+     * @return 变更的任务、删除的任务ID和下一次同步的令牌
+     * @throws SyncTokenExpiredException 令牌早于墓碑保留期，需要重新全量同步
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskChanges findChanges(String since, int pageSize) {
+        SyncToken position = SyncToken.decode(since);
+        LocalDateTime now = LocalDateTime.now();
+        if (position != null && position.getChangedAt().isBefore(now.minusDays(tombstoneRetentionDays))) {
+            throw new SyncTokenExpiredException("同步令牌已超过" + tombstoneRetentionDays + "天，请重新全量同步");
+        }
+        int size = Math.max(1, Math.min(pageSize, maxSyncSize));
+        LocalDateTime until = now.minus(Duration.ofMillis(syncSafetyLagMillis));
+        TaskChanges changes = new TaskChanges();
+        if (position != null && !position.getChangedAt().isBefore(until)) {
+            // 令牌之后的变更还不能返回，保持原令牌
+            changes.setNextToken(since);
+            return changes;
+        }
+
+        LocalDateTime sinceAt = position != null ? position.getChangedAt() : null;
+        Long sinceId = position != null ? position.getId() : null;
+        List<Task> tasks;
+        List<TaskTombstone> tombstones;
+        try {
+            tasks = taskMapper.findChangedBetween(sinceAt, sinceId, until, size + 1);
+            tombstones = position != null
+                    ? taskMapper.findTombstonesBetween(sinceAt, sinceId, until, size + 1)
+                    : Collections.emptyList();
+        } catch (Exception e) {
+            throw new TaskOperationException("增量同步任务失败", e);
+        }
+
+        int i = 0, j = 0;
+        SyncToken last = null;
+        while (i + j < size && (i < tasks.size() || j < tombstones.size())) {
+            if (j >= tombstones.size() || (i < tasks.size() && isBefore(tasks.get(i), tombstones.get(j)))) {
+                Task task = tasks.get(i++);
+                changes.getUpdated().add(task);
+                last = new SyncToken(task.getUpdatedAt(), task.getId());
+            } else {
+                TaskTombstone tombstone = tombstones.get(j++);
+                changes.getDeleted().add(tombstone.getTaskId());
+                last = new SyncToken(tombstone.getDeletedAt(), tombstone.getTaskId());
+            }
+        }
+        // 还有未返回的变更时从最后一条继续；否则until之前的变更已全部返回，下次从until开始
+        boolean hasMore = i < tasks.size() || j < tombstones.size();
+        changes.setHasMore(hasMore);
+        changes.setNextToken((hasMore ? last : new SyncToken(until, 0)).encode());
+        return changes;
+    }
+
+    private static boolean isBefore(Task task, TaskTombstone tombstone) {
+        int compared = task.getUpdatedAt().compareTo(tombstone.getDeletedAt());
+        return compared < 0 || compared == 0 && task.getId() < tombstone.getTaskId();
+    }
 }
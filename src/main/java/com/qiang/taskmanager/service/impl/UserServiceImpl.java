@@ -3,10 +3,13 @@ package com.qiang.taskmanager.service.impl;
 import com.qiang.taskmanager.entity.User;
 import com.qiang.taskmanager.mapper.UserMapper;
 import com.qiang.taskmanager.service.UserService;
+import com.qiang.taskmanager.exception.PasswordHashRejectedException;
 import com.qiang.taskmanager.exception.TaskOperationException;
 import com.qiang.taskmanager.exception.TaskNotFoundException;
 import com.qiang.taskmanager.util.JwtUtil;
+import com.qiang.taskmanager.util.PasswordHasher;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,14 +17,17 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 @Service
+@Slf4j
 public class UserServiceImpl implements UserService {
 
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         try {
@@ -69,9 +75,11 @@ public class UserServiceImpl implements UserService {
     public void register(User user) throws TaskOperationException {
         try {
             // 对密码进行BCrypt加密
-            String encodedPassword = new BCryptPasswordEncoder().encode(user.getPassword());
+            String encodedPassword = passwordHasher.encode(user.getPassword());
             user.setPassword(encodedPassword);
             userMapper.insert(user);
+        } catch (PasswordHashRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new TaskOperationException("用户注册失败", e);
         }
@@ -81,13 +89,40 @@ public class UserServiceImpl implements UserService {
     public User login(String username, String password) throws TaskOperationException {
         try {
             User user = userMapper.findByUsername(username);
-            BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-            if (user != null && passwordEncoder.matches(password, user.getPassword())) {
+            if (user != null && passwordHasher.matches(password, user.getPassword())) {
+                // 成本因子与配置不一致时透明地重新哈希
+                if (passwordHasher.upgradeEncoding(user.getPassword())) {
+                    updatePassword(user, passwordHasher.encode(password));
+                }
                 return user;
             }
             return null;
+        } catch (PasswordHashRejectedException e) {
+            throw e;
         } catch (Exception e) {
             throw new TaskOperationException("用户登录失败，用户名: " + username, e);
         }
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        // 重新哈希失败不影响本次登录，下次登录时再尝试
+        try {
+            User user = userDetails instanceof User
+                    ? (User) userDetails
+                    : userMapper.findByUsername(userDetails.getUsername());
+            if (user == null) {
+                return userDetails;
+            }
+            User update = new User();
+            update.setId(user.getId());
+            update.setPassword(newPassword);
+            userMapper.update(update);
+            user.setPassword(newPassword);
+            return user;
+        } catch (Exception e) {
+            log.warn("重新哈希用户密码失败，用户名: {}", userDetails.getUsername(), e);
+            return userDetails;
+        }
+    }
 }
\ No newline at end of file
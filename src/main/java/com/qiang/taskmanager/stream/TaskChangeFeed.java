@@ -0,0 +1,433 @@
+package com.qiang.taskmanager.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务变更推送（Server-Sent Events）
+ * 任务变更在事务提交后序列化一次，写入环形缓冲区并分发到每个订阅者的有界队列，
+ * 由少量分发线程批量写出；订阅者只占用一个SseEmitter和一个队列，不占用请求线程。
+ * 队列满的慢订阅者按配置收到resync事件（丢弃积压的事件，由客户端重新拉取列表）或被断开；
+ * 客户端重连时携带Last-Event-ID，缓冲区中仍有的事件会被补发，否则同样收到resync事件。
+ * SseEmitter的写出是阻塞的，单次写出超过write-timeout的订阅者被断开，并临时增加一个分发线程
+ * 顶替被卡住的线程，直到该次写出返回，停滞的客户端不会拖慢其他订阅者
+ */
+@Component
+@EnableScheduling
+@Slf4j
+public class TaskChangeFeed implements MeterBinder {
+
+    public enum SlowConsumerPolicy {
+        RESYNC, // 丢弃积压的事件并通知客户端重新同步
+        DROP // 断开连接
+    }
+
+    private static final MediaType EVENT_STREAM_UTF8 = new MediaType(MediaType.TEXT_EVENT_STREAM, StandardCharsets.UTF_8);
+    private static final FeedEvent CONNECTED = FeedEvent.comment("connected");
+    private static final FeedEvent HEARTBEAT = FeedEvent.comment("heartbeat");
+    private static final long IDLE = 0; // 订阅者当前没有在写出
+    private static final long STALLED = Long.MIN_VALUE; // 写出超时，已被断开
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 环形缓冲区大小，决定断线重连时最多能补发多少事件
+    @Value("${task.stream.buffer-size:4096}")
+    private int bufferSize = 4096;
+
+    @Value("${task.stream.queue-capacity:256}")
+    private int queueCapacity = 256;
+
+    @Value("${task.stream.max-subscribers:10000}")
+    private int maxSubscribers = 10000;
+
+    @Value("${task.stream.timeout-millis:1800000}")
+    private long timeoutMillis = 1800000;
+
+    @Value("${task.stream.dispatcher-threads:2}")
+    private int dispatcherThreads = 2;
+
+    // 顶替写出超时线程后分发线程数的上限
+    @Value("${task.stream.max-dispatcher-threads:16}")
+    private int maxDispatcherThreads = 16;
+
+    @Value("${task.stream.write-timeout-millis:5000}")
+    private long writeTimeoutMillis = 5000;
+
+    @Value("${task.stream.slow-consumer:RESYNC}")
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.RESYNC;
+
+    // 事件ID为"epoch-序号"，重启后序号从头开始，旧进程的ID据此识别
+    private final String epoch = Long.toString(System.currentTimeMillis());
+
+    private FeedEvent[] buffer;
+    private long lastSequence; // 最近一个事件的序号，由this保护
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor dispatcherPool;
+    private Executor dispatcher;
+
+    private final LongAdder resyncCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder writeTimeoutCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        buffer = new FeedEvent[bufferSize];
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 每个订阅者同一时间最多有一个分发任务，队列长度不会超过订阅者数量
+        dispatcherPool = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "task-stream-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dispatcher = dispatcherPool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcherPool.shutdownNow();
+    }
+
+    /**
+     * 注册订阅者数量、重新同步次数和断开次数指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("task.stream.subscribers", subscribers, Set::size)
+                .description("当前的变更推送订阅者数量")
+                .register(registry);
+        FunctionCounter.builder("task.stream.resync", resyncCount, LongAdder::sum)
+                .description("因队列已满或补发缺口要求重新同步的次数")
+                .register(registry);
+        FunctionCounter.builder("task.stream.dropped", droppedCount, LongAdder::sum)
+                .description("因消费过慢被断开的订阅者数量")
+                .register(registry);
+        FunctionCounter.builder("task.stream.write-timeout", writeTimeoutCount, LongAdder::sum)
+                .description("因单次写出超时被断开的订阅者数量")
+                .register(registry);
+    }
+
+    /**
+     * 新增订阅者
+     * @param lastEventId 客户端收到的最后一个事件ID，首次连接时为null
+     * @return SSE响应
+     * @throws RejectedExecutionException 订阅者数量已达上限
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("变更推送订阅者数量已达上限");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis) {
+            @Override
+            protected void extendResponse(ServerHttpResponse outputMessage) {
+                // 事件内容按响应头的字符集写出，不声明时StringHttpMessageConverter默认使用ISO-8859-1
+                outputMessage.getHeaders().setContentType(EVENT_STREAM_UTF8);
+                super.extendResponse(outputMessage);
+            }
+        };
+        Subscriber subscriber = new Subscriber(emitter, queueCapacity);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscriber.queue.offer(CONNECTED);
+        // 补发和加入订阅者列表在同一把锁内完成，期间发布的事件不会丢失或重复
+        synchronized (this) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                resume(subscriber, sequenceOf(lastEventId));
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    // 本进程发出的事件ID返回序号，其他进程或格式错误的ID返回-1
+    private long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // 补发序号大于lastSequenceSeen的事件；无法确定客户端缺了哪些事件时要求重新同步
+    private void resume(Subscriber subscriber, long lastSequenceSeen) {
+        if (lastSequenceSeen == lastSequence) {
+            return;
+        }
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        if (lastSequenceSeen < 0 || lastSequenceSeen > lastSequence
+                || lastSequenceSeen + 1 < oldest || lastSequence - lastSequenceSeen >= queueCapacity) {
+            resyncCount.increment();
+            subscriber.queue.offer(FeedEvent.resync(eventId(lastSequence)));
+            return;
+        }
+        for (long sequence = lastSequenceSeen + 1; sequence <= lastSequence; sequence++) {
+            subscriber.queue.offer(buffer[(int) (sequence % buffer.length)]);
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * 任务变更提交后推送，没有事务时立即推送
+     * @param event 任务变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangeEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("taskId", event.getTaskId());
+        payload.put("task", event.getAfter());
+        publish(event.getType().name().toLowerCase(), payload);
+    }
+
+    /**
+     * 批量修改状态提交后推送
+     * @param event 任务状态批量变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusBulkChanged(TaskStatusBulkChangeEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("taskIds", event.getTaskIds());
+        payload.put("toStatus", event.getToStatus());
+        publish("status", payload);
+    }
+
+    private void publish(String name, Map<String, Object> payload) {
+        String data;
+        try {
+            // 所有订阅者共享同一份序列化结果
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("任务变更事件序列化失败，事件：{}", name, e);
+            return;
+        }
+        synchronized (this) {
+            long sequence = ++lastSequence;
+            FeedEvent event = new FeedEvent(eventId(sequence), name, data);
+            buffer[(int) (sequence % buffer.length)] = event;
+            for (Subscriber subscriber : subscribers) {
+                offer(subscriber, event);
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, FeedEvent event) {
+        if (subscriber.queue.offer(event)) {
+            schedule(subscriber);
+            return;
+        }
+        if (slowConsumerPolicy == SlowConsumerPolicy.DROP) {
+            droppedCount.increment();
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        // 积压的事件已经没有意义，只保留一个resync事件，客户端据此重新拉取
+        resyncCount.increment();
+        subscriber.queue.clear();
+        subscriber.queue.offer(FeedEvent.resync(event.id));
+        schedule(subscriber);
+    }
+
+    /**
+     * 定时发送心跳注释，防止代理因空闲断开连接，同时及时发现已断开的客户端
+     */
+    @Scheduled(fixedDelayString = "${task.stream.heartbeat-millis:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * 检查写出超时的订阅者
+     * 被卡住的分发线程无法中断，断开该订阅者并增加一个分发线程顶替，写出返回后再收回
+     */
+    @Scheduled(fixedDelayString = "${task.stream.write-check-millis:1000}")
+    public void checkWriteTimeouts() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt.get();
+            if (started == IDLE || started == STALLED || now - started < timeout) {
+                continue;
+            }
+            boolean compensated = growDispatcher();
+            subscriber.compensated = compensated;
+            if (subscriber.sendStartedAt.compareAndSet(started, STALLED)) {
+                // 只做标记，SseEmitter的方法可能被阻塞中的写出持有锁，由分发线程在写出返回后结束响应
+                writeTimeoutCount.increment();
+                subscribers.remove(subscriber);
+                subscriber.queue.clear();
+                log.warn("变更推送写出超过{}毫秒，断开订阅者", writeTimeoutMillis);
+            } else if (compensated) {
+                shrinkDispatcher();
+            }
+        }
+    }
+
+    private boolean growDispatcher() {
+        synchronized (dispatcherPool) {
+            int size = dispatcherPool.getMaximumPoolSize();
+            if (size >= maxDispatcherThreads) {
+                return false;
+            }
+            dispatcherPool.setMaximumPoolSize(size + 1);
+            dispatcherPool.setCorePoolSize(size + 1);
+            return true;
+        }
+    }
+
+    private void shrinkDispatcher() {
+        synchronized (dispatcherPool) {
+            int size = dispatcherPool.getCorePoolSize();
+            dispatcherPool.setCorePoolSize(size - 1);
+            dispatcherPool.setMaximumPoolSize(size - 1);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            FeedEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                if (!send(subscriber, event)) {
+                    subscribers.remove(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // 退出循环与清除标记之间可能有新事件入队
+        if (!subscriber.queue.isEmpty() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    // 写出一个事件，客户端已断开、响应已结束或本次写出超时时返回false
+    private boolean send(Subscriber subscriber, FeedEvent event) {
+        subscriber.sendStartedAt.set(System.nanoTime());
+        boolean sent;
+        try {
+            subscriber.emitter.send(event.toSse());
+            sent = true;
+        } catch (IOException | IllegalStateException e) {
+            sent = false;
+        }
+        if (subscriber.sendStartedAt.getAndSet(IDLE) == STALLED) {
+            if (subscriber.compensated) {
+                shrinkDispatcher();
+            }
+            if (sent) {
+                subscriber.emitter.completeWithError(new IOException("变更推送写出超时"));
+            }
+            return false;
+        }
+        return sent;
+    }
+
+    /**
+     * 订阅者
+     */
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<FeedEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean(); // 是否已有分发任务
+        private final AtomicLong sendStartedAt = new AtomicLong(IDLE); // 当前写出的开始时间
+        private volatile boolean compensated; // 写出超时后是否增加了顶替线程
+
+        Subscriber(SseEmitter emitter, int queueCapacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    /**
+     * 推送的事件，序列化结果在所有订阅者间共享
+     */
+    private static class FeedEvent {
+        private final String id;
+        private final String name; // 事件名，为null时是注释
+        private final String data;
+
+        FeedEvent(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        static FeedEvent comment(String text) {
+            return new FeedEvent(null, null, text);
+        }
+
+        // 携带当前事件ID，客户端重新拉取后从该ID继续接收
+        static FeedEvent resync(String id) {
+            return new FeedEvent(id, "resync", "{}");
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+}
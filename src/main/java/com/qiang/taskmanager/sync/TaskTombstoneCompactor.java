@@ -0,0 +1,55 @@
+package com.qiang.taskmanager.sync;
+
+import com.qiang.taskmanager.mapper.TaskMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务墓碑清理
+ * 定期删除超过保留期的删除墓碑；保留期与TaskServiceImpl判断同步令牌过期使用同一配置，
+ * 未过期的令牌所需的墓碑不会被删除。分块删除以缩短每条DELETE持有锁的时间
+ */
+@Slf4j
+@Component
+public class TaskTombstoneCompactor {
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Value("${task.sync.tombstone-retention-days:30}")
+    private int retentionDays = 30;
+
+    // 每条DELETE语句删除的最大行数
+    @Value("${task.sync.compaction-chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * 删除超过保留期的墓碑
+     * @return 删除的墓碑数量
+     */
+    @Scheduled(fixedDelayString = "${task.sync.compaction-interval-millis:3600000}",
+            initialDelayString = "${task.sync.compaction-interval-millis:3600000}")
+    public int compact() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        int removed = 0;
+        try {
+            int deleted;
+            do {
+                deleted = taskMapper.deleteTombstonesBefore(before, chunkSize);
+                removed += deleted;
+            } while (deleted >= chunkSize);
+        } catch (Exception e) {
+            log.warn("清理任务墓碑失败，已删除{}条", removed, e);
+            return removed;
+        }
+        if (removed > 0) {
+            log.info("已清理{}条早于{}的任务墓碑", removed, before);
+        }
+        return removed;
+    }
+}
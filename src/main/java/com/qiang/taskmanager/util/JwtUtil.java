@@ -1,24 +1,37 @@
 package com.qiang.taskmanager.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * JWT工具类
  */
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
 
     @Value("${jwt.secret-key}")
     private String secret;
@@ -26,6 +39,52 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    // 密钥和解析器只构建一次，避免每次请求重复Base64解码
+    private SecretKey key;
+    private JwtParser parser;
+
+    // 已验签token缓存，key为token的SHA-256摘要，条目在exp到达时失效
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long remainingMillis = token.getExpiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 注册token缓存的命中/未命中指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+    }
+
     /**
      * 生成JWT token
      * @param username 用户名
@@ -43,7 +102,6 @@ public class JwtUtil {
      * @return JWT token
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
@@ -53,6 +111,27 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * 验证并解析JWT token，同一token在过期前只验签一次
+     * @param token JWT token
+     * @return 已验签的token
+     * @throws io.jsonwebtoken.JwtException token无效或已过期
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        Date expirationDate = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                expirationDate != null ? expirationDate.getTime() : Long.MAX_VALUE);
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
     /**
      * 验证JWT token是否有效
      * @param token JWT token
@@ -60,8 +139,8 @@ public class JwtUtil {
      * @return 验证结果
      */
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final VerifiedToken verified = verify(token);
+        return (verified.getUsername().equals(username) && !verified.isExpired());
     }
 
     /**
@@ -70,7 +149,7 @@ public class JwtUtil {
      * @return 用户名
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     /**
@@ -79,7 +158,7 @@ public class JwtUtil {
      * @return 过期时间
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return new Date(verify(token).getExpiresAt());
     }
 
     /**
@@ -100,16 +179,21 @@ public class JwtUtil {
      * @return 所有声明信息
      */
     private Claims extractAllClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
-        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
-     * 判断JWT token是否已过期
+     * 计算token的SHA-256摘要，作为缓存key，避免在内存中保留原始token
      * @param token JWT token
-     * @return 是否过期
+     * @return Base64编码的摘要
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.qiang.taskmanager.util;
+
+import com.qiang.taskmanager.exception.PasswordHashRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希器
+ * BCrypt计算在独立的有界线程池中执行，队列满时快速拒绝，避免登录高峰占满Tomcat请求线程
+ * 同时作为Spring Security认证使用的PasswordEncoder
+ */
+@Component
+public class PasswordHasher implements PasswordEncoder, MeterBinder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength; // BCrypt成本因子
+    private final long timeoutMillis; // 等待哈希结果的超时时间
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * @param strength BCrypt成本因子
+     * @param threads 哈希线程数
+     * @param queueCapacity 等待队列容量
+     * @param timeoutMillis 等待哈希结果的超时时间（毫秒）
+     */
+    public PasswordHasher(@Value("${password.hashing.strength:10}") int strength,
+                          @Value("${password.hashing.threads:4}") int threads,
+                          @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${password.hashing.timeout-millis:3000}") long timeoutMillis) {
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        this.encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 注册队列深度、哈希耗时和拒绝次数指标
+     * @param registry 指标注册表
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(registry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(registry);
+        FunctionTimer.builder("password.hashing.latency", this,
+                        hasher -> hasher.hashCount.sum(), hasher -> hasher.hashNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("单次BCrypt计算耗时")
+                .register(registry);
+        FunctionCounter.builder("password.hashing.rejected", this, hasher -> hasher.rejectedCount.sum())
+                .description("因队列已满或超时被拒绝的请求数")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 已存储密码的成本因子与当前配置不同时需要重新哈希
+     * @param encodedPassword 已加密的密码
+     * @return 是否需要重新哈希
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    /**
+     * 关闭哈希线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 在哈希线程池中执行任务并等待结果
+     * @param task 哈希任务
+     * @param <T> 结果类型
+     * @return 任务结果
+     * @throws PasswordHashRejectedException 队列已满或等待超时
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    hashCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new PasswordHashRejectedException("服务繁忙，请稍后重试");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCount.increment();
+            throw new PasswordHashRejectedException("服务繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待密码哈希结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码哈希失败", cause);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.qiang.taskmanager.util;
+
+import com.qiang.taskmanager.exception.InvalidCursorException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 增量同步令牌
+ * 记录客户端已同步到的变更位置(changedAt, id)，编码为不透明的Base64URL字符串；
+ * 任务按(updated_at, id)、墓碑按(deleted_at, task_id)与该位置比较
+ */
+@Getter
+public class SyncToken {
+    private final LocalDateTime changedAt;
+    private final long id;
+
+    public SyncToken(LocalDateTime changedAt, long id) {
+        this.changedAt = changedAt;
+        this.id = id;
+    }
+
+    /**
+     * 编码令牌
+     * @return 不透明的令牌字符串
+     */
+    public String encode() {
+        String raw = changedAt + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码令牌
+     * @param token 令牌字符串，为空表示首次同步
+     * @return 令牌，首次同步时返回null
+     * @throws InvalidCursorException 令牌格式错误
+     */
+    public static SyncToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(',');
+            if (separator < 0) {
+                throw new InvalidCursorException("无效的同步令牌: " + token);
+            }
+            return new SyncToken(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("无效的同步令牌: " + token);
+        }
+    }
+}
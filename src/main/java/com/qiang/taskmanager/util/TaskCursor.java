@@ -0,0 +1,66 @@
+package com.qiang.taskmanager.util;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.exception.InvalidCursorException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 任务游标
+ * 记录上一页最后一条任务的(created_at, id)，编码为不透明的Base64URL字符串
+ */
+@Getter
+public class TaskCursor {
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public TaskCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * 根据任务生成游标
+     * @param task 当前页最后一条任务
+     * @return 游标
+     */
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getId());
+    }
+
+    /**
+     * 编码游标
+     * @return 不透明的游标字符串
+     */
+    public String encode() {
+        String raw = createdAt + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 游标，第一页时返回null
+     * @throws InvalidCursorException 游标格式错误
+     */
+    public static TaskCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(',');
+            if (separator < 0) {
+                throw new InvalidCursorException("无效的分页游标: " + cursor);
+            }
+            return new TaskCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("无效的分页游标: " + cursor);
+        }
+    }
+}
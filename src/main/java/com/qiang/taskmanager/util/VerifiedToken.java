@@ -0,0 +1,26 @@
+package com.qiang.taskmanager.util;
+
+import lombok.Getter;
+
+/**
+ * 已验签的JWT token
+ * 一次解析得到的用户名和过期时间，供同一请求内多次使用
+ */
+@Getter
+public class VerifiedToken {
+    private final String username; // 用户名（subject）
+    private final long expiresAt; // 过期时间（毫秒时间戳）
+
+    public VerifiedToken(String username, long expiresAt) {
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 判断token是否已过期
+     * @return 是否过期
+     */
+    public boolean isExpired() {
+        return expiresAt < System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,33 @@
+-- 任务管理系统表结构（MySQL 8）
+-- 新建数据库时执行本文件；已有数据库请执行 upgrade.sql 中对应的变更
+
+CREATE TABLE IF NOT EXISTS `user` (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(64)  NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_user_username (username)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS task (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    title      VARCHAR(255) NOT NULL,
+    status     VARCHAR(32)  NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    updated_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    version    BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    -- 游标分页按(created_at, id)排序
+    KEY idx_task_created_at_id (created_at, id),
+    KEY idx_task_status_created_at_id (status, created_at, id),
+    -- 增量同步按(updated_at, id)排序
+    KEY idx_task_updated_at_id (updated_at, id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 已删除任务的墓碑，供增量同步返回删除记录，超过保留期后清理
+CREATE TABLE IF NOT EXISTS task_tombstone (
+    task_id    BIGINT      NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (task_id),
+    KEY idx_task_tombstone_deleted_at_task_id (deleted_at, task_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
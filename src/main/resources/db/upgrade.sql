@@ -0,0 +1,24 @@
+-- 已有数据库的增量变更，按顺序执行
+
+-- 游标分页索引
+ALTER TABLE task
+    ADD KEY idx_task_created_at_id (created_at, id),
+    ADD KEY idx_task_status_created_at_id (status, created_at, id);
+
+-- 乐观锁版本号
+ALTER TABLE task
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- 增量同步：最后修改时间和删除墓碑
+ALTER TABLE task
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+UPDATE task SET updated_at = created_at;
+ALTER TABLE task
+    ADD KEY idx_task_updated_at_id (updated_at, id);
+
+CREATE TABLE IF NOT EXISTS task_tombstone (
+    task_id    BIGINT      NOT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (task_id),
+    KEY idx_task_tombstone_deleted_at_task_id (deleted_at, task_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
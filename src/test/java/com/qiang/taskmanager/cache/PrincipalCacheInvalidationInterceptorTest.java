@@ -0,0 +1,132 @@
+package com.qiang.taskmanager.cache;
+
+import com.qiang.taskmanager.entity.User;
+import com.qiang.taskmanager.mapper.UserMapper;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheInvalidationInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+    private PrincipalCache principalCache;
+    private PrincipalCacheInvalidationInterceptor interceptor;
+    private Executor executor;
+    private AtomicInteger loads;
+    private Function<String, User> loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(principalCache, "ttlSeconds", 300L);
+        principalCache.init();
+        interceptor = new PrincipalCacheInvalidationInterceptor();
+        ReflectionTestUtils.setField(interceptor, "principalCache", principalCache);
+        executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(1);
+        loads = new AtomicInteger();
+        loader = username -> {
+            loads.incrementAndGet();
+            User user = new User();
+            user.setId(1L);
+            user.setUsername(username);
+            return user;
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private Invocation invocation(String statementId, Object parameter) throws NoSuchMethodException {
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, statementId,
+                new StaticSqlSource(configuration, "UPDATE user SET password = ?"), SqlCommandType.UPDATE).build();
+        return new Invocation(executor, Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{mappedStatement, parameter});
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void intercept_ShouldInvalidateUser_WhenUserIsUpdated() throws Throwable {
+        // Arrange
+        principalCache.get("alice", loader);
+
+        // Act
+        interceptor.intercept(invocation(UserMapper.class.getName() + ".update", user(1L)));
+
+        // Assert
+        principalCache.get("alice", loader);
+        assertEquals(2, loads.get());
+        verify(executor, times(1)).update(any(), any());
+    }
+
+    @Test
+    void intercept_ShouldInvalidateUser_WhenUserIsDeleted() throws Throwable {
+        // Arrange
+        principalCache.get("alice", loader);
+
+        // Act
+        interceptor.intercept(invocation(UserMapper.class.getName() + ".deleteById", 1L));
+
+        // Assert
+        principalCache.get("alice", loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void intercept_ShouldKeepCache_ForOtherStatements() throws Throwable {
+        // Arrange
+        principalCache.get("alice", loader);
+
+        // Act
+        interceptor.intercept(invocation(UserMapper.class.getName() + ".insert", user(2L)));
+        interceptor.intercept(invocation("com.qiang.taskmanager.mapper.TaskMapper.deleteById", 1L));
+
+        // Assert
+        principalCache.get("alice", loader);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void intercept_ShouldInvalidateAgain_WhenTransactionCompletes() throws Throwable {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        principalCache.get("alice", loader);
+
+        // Act - 提交前其他请求重新加载了旧数据
+        interceptor.intercept(invocation(UserMapper.class.getName() + ".update", user(1L)));
+        principalCache.get("alice", loader);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Assert
+        principalCache.get("alice", loader);
+        assertEquals(3, loads.get());
+    }
+}
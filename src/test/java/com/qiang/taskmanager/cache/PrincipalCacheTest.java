@@ -0,0 +1,92 @@
+package com.qiang.taskmanager.cache;
+
+import com.qiang.taskmanager.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private PrincipalCache principalCache;
+    private AtomicInteger loads;
+    private Function<String, User> loader;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(principalCache, "ttlSeconds", 300L);
+        principalCache.init();
+        loads = new AtomicInteger();
+        loader = username -> {
+            loads.incrementAndGet();
+            User user = new User();
+            user.setId("alice".equals(username) ? 1L : 2L);
+            user.setUsername(username);
+            return user;
+        };
+    }
+
+    @Test
+    void get_ShouldLoadOnce_WhenCached() {
+        // Act
+        User first = principalCache.get("alice", loader);
+        User second = principalCache.get("alice", loader);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldRemoveOnlyThatUser() {
+        // Arrange
+        principalCache.get("alice", loader);
+        principalCache.get("bob", loader);
+
+        // Act
+        principalCache.invalidate(1L);
+
+        // Assert
+        principalCache.get("alice", loader);
+        principalCache.get("bob", loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldIgnoreUncachedUser() {
+        // Arrange
+        principalCache.get("alice", loader);
+
+        // Act
+        principalCache.invalidate(99L);
+
+        // Assert
+        principalCache.get("alice", loader);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidate_ShouldClearEverything_WhenUserIdIsUnknown() {
+        // Arrange
+        principalCache.get("alice", loader);
+        principalCache.get("bob", loader);
+
+        // Act
+        principalCache.invalidate(null);
+
+        // Assert
+        principalCache.get("alice", loader);
+        principalCache.get("bob", loader);
+        assertEquals(4, loads.get());
+        Map<Long, String> usernames = (Map<Long, String>) ReflectionTestUtils.getField(principalCache, "usernames");
+        assertEquals(2, usernames.size());
+    }
+}
@@ -0,0 +1,134 @@
+package com.qiang.taskmanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskCountCacheTest {
+
+    @Mock
+    private TaskMapper taskMapper;
+
+    @InjectMocks
+    private TaskCountCache taskCountCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taskCountCache, "resyncSeconds", 300L);
+        ReflectionTestUtils.setField(taskCountCache, "filterTtlSeconds", 30L);
+        ReflectionTestUtils.setField(taskCountCache, "filterMaximumSize", 100L);
+        ReflectionTestUtils.setField(taskCountCache, "statusMaximumSize", 2L);
+        taskCountCache.init();
+    }
+
+    private Task task(String status) {
+        Task task = new Task();
+        task.setId(1L);
+        task.setStatus(status);
+        return task;
+    }
+
+    @Test
+    void onTaskChanged_ShouldMoveCountBetweenStatuses_WhenPreviousStateIsKnown() {
+        // Arrange
+        when(taskMapper.countByStatus("pending")).thenReturn(5L);
+        when(taskMapper.countByStatus("completed")).thenReturn(1L);
+        taskCountCache.countByStatus("pending");
+        taskCountCache.countByStatus("completed");
+
+        // Act
+        taskCountCache.onTaskChanged(TaskChangeEvent.updated(task("pending"), task("completed")));
+        taskCountCache.onTaskChanged(TaskChangeEvent.deleted(1L, task("completed")));
+
+        // Assert - 增量维护，不重新查询
+        assertEquals(4L, taskCountCache.countByStatus("pending"));
+        assertEquals(1L, taskCountCache.countByStatus("completed"));
+        verify(taskMapper, times(1)).countByStatus("pending");
+        verify(taskMapper, times(1)).countByStatus("completed");
+    }
+
+    @Test
+    void onTaskChanged_ShouldReloadStatusCounts_WhenPreviousStateIsUnknown() {
+        // Arrange
+        when(taskMapper.countByStatus("pending")).thenReturn(5L, 4L);
+        taskCountCache.countByStatus("pending");
+
+        // Act - 更新不读取修改前的数据
+        taskCountCache.onTaskChanged(TaskChangeEvent.updated(null, task("completed")));
+
+        // Assert
+        assertEquals(4L, taskCountCache.countByStatus("pending"));
+        verify(taskMapper, times(2)).countByStatus("pending");
+    }
+
+    @Test
+    void onTaskChanged_ShouldCountOnlyCommittedWrites() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        context.registerBean(TaskMapper.class, () -> taskMapper);
+        context.registerBean(TaskCountCache.class, () -> taskCountCache);
+        context.refresh();
+        try {
+            // Arrange
+            when(taskMapper.countAll()).thenReturn(5L);
+            taskCountCache.countAll();
+
+            // Act - 第一个创建所在事务回滚，第二个提交
+            TransactionSynchronizationManager.initSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            context.publishEvent(TaskChangeEvent.created(task("pending")));
+            context.publishEvent(TaskChangeEvent.created(task("pending")));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clear();
+            assertEquals(5L, taskCountCache.countAll());
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            synchronizations.get(1).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+            // Assert
+            assertEquals(6L, taskCountCache.countAll());
+            verify(taskMapper, times(1)).countAll();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clear();
+            }
+            context.close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countByStatus_ShouldBoundNumberOfCounters() {
+        // Arrange
+        when(taskMapper.countByStatus(anyString())).thenReturn(1L);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            taskCountCache.countByStatus("status-" + i);
+        }
+
+        // Assert
+        Cache<String, ?> statusCounts = (Cache<String, ?>) ReflectionTestUtils.getField(taskCountCache, "statusCounts");
+        statusCounts.cleanUp();
+        assertTrue(statusCounts.estimatedSize() <= 2);
+    }
+}
@@ -0,0 +1,92 @@
+package com.qiang.taskmanager.cache;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEtagTrackerTest {
+
+    private AnnotationConfigApplicationContext context;
+    private TaskEtagTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        context.registerBean(TaskEtagTracker.class);
+        context.refresh();
+        tracker = context.getBean(TaskEtagTracker.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        context.close();
+    }
+
+    private Task task(Long id, Long version) {
+        Task task = new Task();
+        task.setId(id);
+        task.setVersion(version);
+        return task;
+    }
+
+    private void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    // 按事务管理器的顺序回调事务同步
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clear();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (committed) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(committed
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    @Test
+    void onTaskChanged_ShouldAdvanceAfterCommit() {
+        tracker.record(task(1L, 3L), tracker.generation());
+        long generation = tracker.generation();
+
+        begin();
+        context.publishEvent(TaskChangeEvent.updated(task(1L, 3L), task(1L, 4L)));
+        // 提交前ETag和代数保持不变
+        assertEquals("\"1-3\"", tracker.taskEtag(1L));
+        assertEquals(generation, tracker.generation());
+        complete(true);
+
+        assertEquals("\"1-4\"", tracker.taskEtag(1L));
+        assertTrue(tracker.generation() > generation);
+    }
+
+    @Test
+    void onTaskChanged_ShouldKeepEtag_WhenRolledBack() {
+        tracker.record(task(1L, 3L), tracker.generation());
+        long generation = tracker.generation();
+
+        begin();
+        context.publishEvent(TaskChangeEvent.updated(task(1L, 3L), task(1L, 4L)));
+        complete(false);
+
+        assertEquals("\"1-3\"", tracker.taskEtag(1L));
+        assertEquals(generation, tracker.generation());
+    }
+}
@@ -0,0 +1,135 @@
+package com.qiang.taskmanager.cache;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskNearCacheTest {
+
+    private AnnotationConfigApplicationContext context;
+    private TaskNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        context.registerBean(TaskNearCache.class);
+        context.refresh();
+        cache = context.getBean(TaskNearCache.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        context.close();
+    }
+
+    private Task task(Long id, String title) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        task.setStatus("进行中");
+        return task;
+    }
+
+    private void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    // 按事务管理器的顺序回调事务同步
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clear();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (committed) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(committed
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    @Test
+    void onTaskChanged_ShouldPutCreatedTaskAfterCommit() {
+        begin();
+        context.publishEvent(TaskChangeEvent.created(task(1L, "新任务")));
+        context.publishEvent(TaskChangeEvent.created(task(2L, "新任务")));
+        // 提交前其他请求看不到未提交的任务
+        assertNull(cache.get(1L, id -> null));
+        complete(true);
+
+        assertEquals("新任务", cache.get(1L, id -> null).getTitle());
+        assertEquals("新任务", cache.get(2L, id -> null).getTitle());
+    }
+
+    @Test
+    void onTaskChanged_ShouldNotPutCreatedTask_WhenRolledBack() {
+        begin();
+        context.publishEvent(TaskChangeEvent.created(task(1L, "新任务")));
+        complete(false);
+
+        assertNull(cache.get(1L, id -> null));
+    }
+
+    @Test
+    void onTaskChanged_ShouldInvalidateAfterCommit() {
+        cache.get(1L, id -> task(id, "旧标题"));
+
+        begin();
+        context.publishEvent(TaskChangeEvent.deleted(1L, null));
+        // 提交前读到的仍是缓存中已提交的数据
+        assertEquals("旧标题", cache.get(1L, id -> task(id, "提交前加载")).getTitle());
+        complete(true);
+
+        assertEquals("新标题", cache.get(1L, id -> task(id, "新标题")).getTitle());
+    }
+
+    @Test
+    void onTaskChanged_ShouldKeepCache_WhenRolledBack() {
+        cache.get(1L, id -> task(id, "旧标题"));
+
+        begin();
+        context.publishEvent(TaskChangeEvent.updated(null, task(1L, "新标题")));
+        complete(false);
+
+        assertEquals("旧标题", cache.get(1L, id -> task(id, "重新加载")).getTitle());
+    }
+
+    @Test
+    void onTaskChanged_ShouldInvalidateImmediately_WithoutTransaction() {
+        cache.get(1L, id -> task(id, "旧标题"));
+
+        context.publishEvent(TaskChangeEvent.updated(null, task(1L, "新标题")));
+
+        assertEquals("新标题", cache.get(1L, id -> task(id, "新标题")).getTitle());
+    }
+
+    @Test
+    void onStatusBulkChanged_ShouldInvalidateAfterCommit() {
+        cache.get(1L, id -> task(id, "任务1"));
+
+        begin();
+        context.publishEvent(new TaskStatusBulkChangeEvent(Collections.singletonList(1L), null, "已完成", 1));
+        assertEquals("进行中", cache.get(1L, id -> null).getStatus());
+        complete(true);
+
+        Task reloaded = task(1L, "任务1");
+        reloaded.setStatus("已完成");
+        assertEquals("已完成", cache.get(1L, id -> reloaded).getStatus());
+    }
+}
@@ -0,0 +1,28 @@
+package com.qiang.taskmanager.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathsTest {
+
+    @Test
+    void matches_ShouldAcceptWhitelistedPaths() {
+        assertTrue(PublicPaths.matches("/users/login", ""));
+        assertTrue(PublicPaths.matches("/users/register", ""));
+        assertTrue(PublicPaths.matches("/doc.html", ""));
+        assertTrue(PublicPaths.matches("/v3/api-docs", ""));
+        assertTrue(PublicPaths.matches("/v3/api-docs/swagger-config", ""));
+        assertTrue(PublicPaths.matches("/webjars/js/app.js", ""));
+        assertTrue(PublicPaths.matches("/api/users/login", "/api"));
+    }
+
+    @Test
+    void matches_ShouldRejectOtherPaths() {
+        assertFalse(PublicPaths.matches("/tasks/1", ""));
+        assertFalse(PublicPaths.matches("/tasks/users/login", ""));
+        assertFalse(PublicPaths.matches("/api/tasks/1", "/api"));
+        assertFalse(PublicPaths.matches("/webjarsx/app.js", ""));
+        assertFalse(PublicPaths.matches("/users/loginx", ""));
+    }
+}
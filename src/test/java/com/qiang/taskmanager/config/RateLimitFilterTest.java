@@ -0,0 +1,119 @@
+package com.qiang.taskmanager.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(
+                route("/users/login", RateLimitProperties.Key.IP, 2),
+                route("/tasks/search/**", RateLimitProperties.Key.USER, 1)));
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private RateLimitProperties.Route route(String path, RateLimitProperties.Key key, int capacity) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath(path);
+        route.setKey(key);
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(0.01); // 测试期间不会补充令牌
+        return route;
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+    }
+
+    @Test
+    void doFilter_ShouldRejectWithRetryAfter_WhenBucketIsEmpty() throws Exception {
+        assertEquals(200, send("POST", "/users/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/users/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = send("POST", "/users/login", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) >= 1);
+        assertTrue(rejected.getContentAsString().contains("\"code\":429"));
+        // 其他IP使用各自的令牌桶
+        assertEquals(200, send("POST", "/users/login", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldLimitAuthenticatedRoutesPerUser() throws Exception {
+        authenticate("alice");
+        assertEquals(200, send("GET", "/tasks/search/title", "10.0.0.1").getStatus());
+        assertEquals(429, send("GET", "/tasks/search/status", "10.0.0.1").getStatus());
+
+        // 同一IP的其他用户不受影响
+        authenticate("bob");
+        assertEquals(200, send("GET", "/tasks/search/title", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldPassUnmatchedRoutes() throws Exception {
+        authenticate("alice");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("GET", "/tasks/1", "10.0.0.1").getStatus());
+            assertEquals(200, send("GET", "/tasks/searchx", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void init_ShouldFail_WhenBucketCannotRefillWithinIdleTime() {
+        // 容量2、每秒0.01个令牌，回满需要200秒
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIdleSeconds(100);
+        properties.setRoutes(List.of(route("/users/login", RateLimitProperties.Key.IP, 2)));
+        RateLimitFilter invalid = new RateLimitFilter();
+        ReflectionTestUtils.setField(invalid, "properties", properties);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, invalid::init);
+        assertTrue(exception.getMessage().contains("/users/login"));
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(0);
+        long interval = 1_000_000L;
+
+        assertEquals(0, bucket.tryAcquire(0, interval, 2));
+        assertEquals(0, bucket.tryAcquire(0, interval, 2));
+        assertEquals(interval, bucket.tryAcquire(0, interval, 2));
+        assertEquals(interval / 2, bucket.tryAcquire(interval / 2, interval, 2));
+        assertEquals(0, bucket.tryAcquire(interval, interval, 2));
+    }
+}
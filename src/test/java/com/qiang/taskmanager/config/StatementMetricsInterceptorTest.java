@@ -0,0 +1,80 @@
+package com.qiang.taskmanager.config;
+
+import com.qiang.taskmanager.monitor.SlowQuerySampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class StatementMetricsInterceptorTest {
+
+    private static final String STATEMENT_ID = "com.qiang.taskmanager.mapper.TaskMapper.update";
+
+    private SimpleMeterRegistry registry;
+    private StatementMetricsInterceptor interceptor;
+    private Executor executor;
+    private SlowQuerySampler slowQuerySampler;
+    private MappedStatement mappedStatement;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new StatementMetricsInterceptor();
+        interceptor.bindTo(registry);
+        slowQuerySampler = mock(SlowQuerySampler.class);
+        ReflectionTestUtils.setField(interceptor, "slowQuerySampler", slowQuerySampler);
+        executor = mock(Executor.class);
+        Configuration configuration = new Configuration();
+        mappedStatement = new MappedStatement.Builder(configuration, STATEMENT_ID,
+                new StaticSqlSource(configuration, "UPDATE task SET status = ?"), SqlCommandType.UPDATE).build();
+    }
+
+    private Invocation updateInvocation() throws NoSuchMethodException {
+        return new Invocation(executor, Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{mappedStatement, null});
+    }
+
+    @Test
+    void intercept_ShouldRecordLatencyAndRows() throws Throwable {
+        // Arrange
+        when(executor.update(any(), any())).thenReturn(3);
+
+        // Act
+        interceptor.intercept(updateInvocation());
+
+        // Assert
+        assertEquals(1, registry.get("mybatis.statement")
+                .tags("statement", "TaskMapper.update", "type", "update", "outcome", "success").timer().count());
+        assertEquals(3.0, registry.get("mybatis.statement.rows")
+                .tags("statement", "TaskMapper.update").summary().totalAmount());
+        verify(slowQuerySampler).onStatement(eq(mappedStatement), any(Object[].class), anyLong(), isNull());
+    }
+
+    @Test
+    void intercept_ShouldRecordError_WhenStatementFails() throws Throwable {
+        // Arrange
+        when(executor.update(any(), any())).thenThrow(new SQLException("锁等待超时"));
+
+        // Act & Assert
+        assertThrows(Exception.class, () -> interceptor.intercept(updateInvocation()));
+        assertEquals(1, registry.get("mybatis.statement")
+                .tags("statement", "TaskMapper.update", "outcome", "error").timer().count());
+        assertEquals(0, registry.get("mybatis.statement")
+                .tags("statement", "TaskMapper.update", "outcome", "success").timer().count());
+    }
+}
@@ -0,0 +1,75 @@
+package com.qiang.taskmanager.config;
+
+import com.qiang.taskmanager.config.TaskBulkheads.Workload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TaskBulkheadsTest {
+
+    private PlatformTransactionManager transactionManager;
+    private TaskBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setList(new BulkheadProperties.Pool(1, 0, 7));
+        transactionManager = mock(PlatformTransactionManager.class);
+        bulkheads = new TaskBulkheads();
+        ReflectionTestUtils.setField(bulkheads, "properties", properties);
+        ReflectionTestUtils.setField(bulkheads, "transactionManager", transactionManager);
+        bulkheads.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheads.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunInTransactionWithWorkloadTimeout() throws Exception {
+        // Act
+        String result = bulkheads.submit(Workload.LIST, () -> "ok").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("ok", result);
+        verify(transactionManager).getTransaction(argThat((TransactionDefinition definition) ->
+                definition.getTimeout() == 7 && definition.isReadOnly()));
+    }
+
+    @Test
+    void submit_ShouldReject_WhenBulkheadIsFull() throws Exception {
+        // Arrange：唯一的线程被占用，且没有队列
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = bulkheads.submit(Workload.LIST, () -> awaitQuietly(release));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> bulkheads.submit(Workload.LIST, () -> "rejected"));
+        // 其他负载类型不受影响
+        assertEquals("ok", bulkheads.submit(Workload.POINT_READ, () -> "ok").get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,22 +1,40 @@
 package com.qiang.taskmanager.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.cache.TaskEtagTracker;
+import com.qiang.taskmanager.common.CountMode;
 import com.qiang.taskmanager.common.Result;
 import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.exception.GlobalExceptionHandler;
 import com.qiang.taskmanager.service.TaskService;
+import com.qiang.taskmanager.stream.TaskChangeFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -30,6 +48,23 @@ public class TaskControllerTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskEtagTracker taskEtagTracker;
+
+    @Mock
+    private TaskChangeFeed taskChangeFeed;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+
+    @Spy
+    private MappingJackson2SmileHttpMessageConverter smileConverter = new MappingJackson2SmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+
     @InjectMocks
     private TaskController taskController;
 
@@ -76,6 +111,89 @@ public class TaskControllerTest {
         verify(taskService, times(1)).findAll();
     }
 
+    @Test
+    void testExportTasks_Ndjson() throws Exception {
+        // 模拟行为：逐条回调任务
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(0);
+            consumer.accept(task1);
+            consumer.accept(task2);
+            return null;
+        }).when(taskService).streamAll(any());
+
+        // 执行测试并验证
+        MvcResult mvcResult = mockMvc.perform(get("/tasks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals("测试任务2", objectMapper.readTree(lines[1]).get("title").asText());
+    }
+
+    @Test
+    void testExportTasks_Array() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(0);
+            consumer.accept(task1);
+            consumer.accept(task2);
+            return null;
+        }).when(taskService).streamAll(any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/tasks/export").param("format", "array"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void testExportTasks_Cbor() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(0);
+            consumer.accept(task1);
+            consumer.accept(task2);
+            return null;
+        }).when(taskService).streamAll(any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/tasks/export").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // 连续的CBOR根值，逐个读取
+        try (MappingIterator<JsonNode> values = cborConverter.getObjectMapper().readerFor(JsonNode.class).readValues(body)) {
+            List<JsonNode> tasks = values.readAll();
+            assertEquals(2, tasks.size());
+            assertEquals(1L, tasks.get(0).get("id").asLong());
+            assertEquals("测试任务2", tasks.get(1).get("title").asText());
+        }
+    }
+
+    @Test
+    void testGetTaskById_Smile() throws Exception {
+        when(taskService.findById(1L)).thenReturn(task1);
+
+        byte[] body = mockMvc.perform(get("/tasks/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode result = smileConverter.getObjectMapper().readTree(body);
+        assertEquals(200, result.get("code").asInt());
+        assertEquals("测试任务1", result.get("data").get("title").asText());
+    }
+
     @Test
     void testGetTaskById_Success() throws Exception {
         // 模拟行为
@@ -93,6 +211,65 @@ public class TaskControllerTest {
         verify(taskService, times(1)).findById(1L);
     }
 
+    @Test
+    void testGetTaskById_NotModified() throws Exception {
+        // 模拟行为：已知任务版本
+        when(taskEtagTracker.taskEtag(1L)).thenReturn("\"1-3\"");
+
+        // 执行测试并验证：ETag一致时不查询任务
+        mockMvc.perform(get("/tasks/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3\""));
+
+        verify(taskService, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetTaskById_ShouldUseLoadedVersion_WhenKnownEtagIsStale() throws Exception {
+        // 模拟行为：客户端持有旧版本，查询后以新版本作为ETag
+        when(taskEtagTracker.taskEtag(1L)).thenReturn("\"1-3\"");
+        when(taskEtagTracker.generation()).thenReturn(7L);
+        when(taskService.findById(1L)).thenReturn(task1);
+        when(taskEtagTracker.record(task1, 7L)).thenReturn("\"1-4\"");
+
+        // 执行测试并验证：ETag和Vary各只有一个
+        mockMvc.perform(get("/tasks/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"1-4\""))
+                .andExpect(header().stringValues("Vary", "Accept"));
+
+        verify(taskService, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetTasksWithPage_NotModified() throws Exception {
+        // 模拟行为：任务表没有变更
+        when(taskEtagTracker.generation()).thenReturn(42L);
+        when(taskEtagTracker.listEtag(42L)).thenReturn("\"g42\"");
+
+        // 执行测试并验证
+        mockMvc.perform(get("/tasks/page").header("If-None-Match", "\"g42\""))
+                .andExpect(status().isNotModified());
+
+        verify(taskService, never()).findTasksWithPage(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetTasksWithPage_EtagDependsOnEncoding() throws Exception {
+        // 模拟行为：JSON表示的ETag不能用于CBOR请求的条件验证
+        when(taskEtagTracker.generation()).thenReturn(42L);
+        when(taskEtagTracker.listEtag(42L)).thenReturn("\"g42\"");
+        when(taskService.findTasksWithPage(1, 10)).thenReturn(new PageInfo<>(Arrays.asList(task1, task2)));
+
+        // 执行测试并验证
+        mockMvc.perform(get("/tasks/page").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"g42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"g42-cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+        mockMvc.perform(get("/tasks/page").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"g42-cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void testGetTaskById_NotFound() throws Exception {
         // 模拟行为 - 返回null或抛出异常
@@ -130,6 +307,26 @@ public class TaskControllerTest {
         verify(taskService, times(1)).createTask(any(Task.class));
     }
 
+    @Test
+    void testCreateTask_Cbor() throws Exception {
+        Task task = new Task();
+        task.setTitle("新任务");
+        task.setStatus("待开始");
+        ObjectMapper cborMapper = cborConverter.getObjectMapper();
+
+        byte[] body = mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(task)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(200, cborMapper.readTree(body).get("code").asInt());
+        verify(taskService).createTask(argThat(created -> "新任务".equals(created.getTitle())
+                && "待开始".equals(created.getStatus())));
+    }
+
     @Test
     void testUpdateTask() throws Exception {
         String taskJson = """
@@ -261,4 +458,41 @@ public class TaskControllerTest {
         // 验证服务调用（使用默认参数）
         verify(taskService, times(1)).findTasksWithPage(1, 10);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetTasksWithPage_CountModeNone() throws Exception {
+        // 准备数据
+        PageInfo<Task> pageInfo = new PageInfo<>(Arrays.asList(task1, task2));
+        pageInfo.setTotal(-1);
+
+        // 模拟行为
+        when(taskService.findTasksWithPage(1, 10, CountMode.NONE)).thenReturn(pageInfo);
+
+        // 执行测试
+        mockMvc.perform(get("/tasks/page")
+                        .param("countMode", "none")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data.total").value(-1));
+
+        verify(taskService, times(1)).findTasksWithPage(1, 10, CountMode.NONE);
+        verify(taskService, never()).findTasksWithPage(1, 10);
+    }
+
+    @Test
+    void testGetTasksWithPage_InvalidCountMode() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(taskController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        // 执行测试
+        mockMvc.perform(get("/tasks/page")
+                        .param("countMode", "sometimes")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+
+        verifyNoInteractions(taskService);
+    }
+}
@@ -0,0 +1,191 @@
+package com.qiang.taskmanager.index;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class TaskTitleIndexTest {
+
+    @Mock
+    private TaskMapper taskMapper;
+
+    @InjectMocks
+    private TaskTitleIndex taskTitleIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taskTitleIndex, "maxCandidates", 100);
+        List<Task> tasks = Arrays.asList(
+                task(1L, "编写项目文档"),
+                task(2L, "Review Café menu"),
+                task(3L, "修复登录接口"),
+                task(4L, "编写测试用例"));
+        doAnswer(invocation -> {
+            ResultHandler<Task> handler = invocation.getArgument(0);
+            DefaultResultContext<Task> context = new DefaultResultContext<>();
+            for (Task task : tasks) {
+                context.nextResultObject(task);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(taskMapper).scanTitles(any());
+        taskTitleIndex.rebuild();
+    }
+
+    private Task task(Long id, String title) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        return task;
+    }
+
+    @Test
+    void candidates_ShouldReturnMatchingIds() {
+        assertTrue(taskTitleIndex.isReady());
+        assertArrayEquals(new long[]{1L}, taskTitleIndex.candidates("项目文档"));
+        assertArrayEquals(new long[0], taskTitleIndex.candidates("不存在的"));
+    }
+
+    @Test
+    void candidates_ShouldIgnoreCaseAndAccents() {
+        assertArrayEquals(new long[]{2L}, taskTitleIndex.candidates("CAFE"));
+    }
+
+    @Test
+    void candidates_ShouldReturnNull_WhenQueryCannotBeAnswered() {
+        assertNull(taskTitleIndex.candidates("编写"));
+        assertNull(taskTitleIndex.candidates("编写%文档"));
+
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.created(task(5L, "编写测试脚本")));
+        ReflectionTestUtils.setField(taskTitleIndex, "maxCandidates", 1);
+        assertNull(taskTitleIndex.candidates("编写测"));
+        assertArrayEquals(new long[]{1L}, taskTitleIndex.candidates("编写项"));
+    }
+
+    @Test
+    void candidates_ShouldRejectGramsThatAreNotContiguous() {
+        // "abc"和"bcd"都能命中，但在标题中并不连续
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.created(task(5L, "abc-bcd")));
+
+        assertArrayEquals(new long[0], taskTitleIndex.candidates("abcd"));
+        assertArrayEquals(new long[]{4L}, taskTitleIndex.candidates("编写测试"));
+    }
+
+    @Test
+    void onTaskChanged_ShouldMaintainIndexIncrementally() {
+        // Act
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.created(task(5L, "编写部署脚本")));
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.updated(task(1L, "编写项目文档"), task(1L, "整理会议纪要")));
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.deleted(3L, task(3L, "修复登录接口")));
+
+        // Assert
+        assertArrayEquals(new long[]{5L}, taskTitleIndex.candidates("部署脚本"));
+        assertArrayEquals(new long[0], taskTitleIndex.candidates("项目文档"));
+        assertArrayEquals(new long[]{1L}, taskTitleIndex.candidates("会议纪要"));
+        assertArrayEquals(new long[0], taskTitleIndex.candidates("登录接口"));
+    }
+
+    @Test
+    void footprint_ShouldReportIndexSize() {
+        TaskTitleIndex.Footprint footprint = taskTitleIndex.footprint();
+
+        assertEquals(4, footprint.getTasks());
+        assertTrue(footprint.getGrams() > 0);
+        assertTrue(footprint.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    void footprint_ShouldMatchRebuild_AfterIncrementalChanges() {
+        List<Task> remaining = new ArrayList<>(Arrays.asList(task(2L, "Review Café menu"), task(4L, "编写测试用例")));
+        for (long id = 10; id < 300; id++) {
+            taskTitleIndex.onTaskChanged(TaskChangeEvent.created(task(id, "x" + id + "y")));
+            if (id % 2 == 1) {
+                remaining.add(task(id, "x" + id + "y"));
+            }
+        }
+        for (long id = 10; id < 300; id += 2) {
+            taskTitleIndex.onTaskChanged(TaskChangeEvent.deleted(id, null));
+        }
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.deleted(1L, null));
+        taskTitleIndex.onTaskChanged(TaskChangeEvent.deleted(3L, null));
+
+        // 删除后其余标题仍能查到
+        for (long id = 11; id < 300; id += 2) {
+            assertArrayEquals(new long[]{id}, taskTitleIndex.candidates("x" + id + "y"));
+        }
+        assertArrayEquals(new long[0], taskTitleIndex.candidates("x12y"));
+
+        // 增量维护的计数与重新构建的结果一致
+        TaskTitleIndex.Footprint incremental = taskTitleIndex.footprint();
+        doAnswer(invocation -> {
+            ResultHandler<Task> handler = invocation.getArgument(0);
+            DefaultResultContext<Task> context = new DefaultResultContext<>();
+            for (Task task : remaining) {
+                context.nextResultObject(task);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(taskMapper).scanTitles(any());
+        taskTitleIndex.rebuild();
+        TaskTitleIndex.Footprint rebuilt = taskTitleIndex.footprint();
+
+        assertEquals(rebuilt.getTasks(), incremental.getTasks());
+        assertEquals(rebuilt.getGrams(), incremental.getGrams());
+        assertEquals(rebuilt.getPostingEntries(), incremental.getPostingEntries());
+        assertTrue(incremental.getEstimatedBytes() >= rebuilt.getEstimatedBytes());
+    }
+
+    @Test
+    void onTaskChanged_ShouldApplyOnlyAfterCommit() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(TransactionalEventListenerFactory.class);
+        context.registerBean(TaskMapper.class, () -> taskMapper);
+        context.registerBean(TaskTitleIndex.class, () -> taskTitleIndex);
+        context.refresh();
+        try {
+            TransactionSynchronizationManager.initSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            context.publishEvent(TaskChangeEvent.created(task(5L, "回滚的任务")));
+            context.publishEvent(TaskChangeEvent.created(task(6L, "提交的任务")));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clear();
+            // 提交前索引中没有这两个任务
+            assertArrayEquals(new long[0], taskTitleIndex.candidates("提交的任务"));
+
+            // 第一个事件所在事务回滚，第二个提交
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            synchronizations.get(1).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+            assertArrayEquals(new long[0], taskTitleIndex.candidates("回滚的任务"));
+            assertArrayEquals(new long[]{6L}, taskTitleIndex.candidates("提交的任务"));
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clear();
+            }
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.qiang.taskmanager.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.Result;
+import com.qiang.taskmanager.entity.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonSerializersTest {
+
+    // 与Spring Boot默认配置一致的ObjectMapper
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper optimizedMapper = Jackson2ObjectMapperBuilder.json()
+            .serializers(new TaskJsonSerializers.TaskSerializer(),
+                    new TaskJsonSerializers.ResultSerializer(),
+                    new TaskJsonSerializers.CursorPageSerializer())
+            .modulesToInstall(new BlackbirdModule())
+            .build();
+
+    private List<Task> tasks() {
+        Task full = new Task();
+        full.setId(1L);
+        full.setTitle("编写\"项目\"文档\n第一版");
+        full.setStatus("进行中");
+        full.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        full.setUpdatedAt(LocalDateTime.of(2024, 1, 3, 18, 45, 30));
+        full.setVersion(3L);
+
+        Task withNanos = new Task();
+        withNanos.setId(2L);
+        withNanos.setTitle("修复登录接口");
+        withNanos.setStatus("已完成");
+        withNanos.setCreatedAt(LocalDateTime.of(2024, 1, 2, 10, 30, 15, 123456000));
+        withNanos.setUpdatedAt(withNanos.getCreatedAt());
+        withNanos.setVersion(0L);
+
+        // 所有字段为null
+        return Arrays.asList(full, withNanos, new Task());
+    }
+
+    private void assertSameBytes(Object value) throws Exception {
+        assertArrayEquals(defaultMapper.writeValueAsBytes(value), optimizedMapper.writeValueAsBytes(value),
+                () -> "输出不一致：" + value);
+    }
+
+    @Test
+    void serialize_ShouldMatchDefaultOutput_ForTaskList() throws Exception {
+        assertSameBytes(Result.success(tasks()));
+        assertSameBytes(tasks().get(0));
+    }
+
+    @Test
+    void serialize_ShouldMatchDefaultOutput_ForPageInfo() throws Exception {
+        assertSameBytes(Result.success(new PageInfo<>(tasks())));
+    }
+
+    @Test
+    void serialize_ShouldMatchDefaultOutput_ForCursorPage() throws Exception {
+        assertSameBytes(Result.success(CursorPage.of(tasks(), "MTcwNDA3MDgwMDAwMDox")));
+        assertSameBytes(Result.success(CursorPage.of(Collections.emptyList(), null)));
+    }
+
+    @Test
+    void serialize_ShouldMatchDefaultOutput_ForErrorsAndMessages() throws Exception {
+        assertSameBytes(Result.error(404, "任务不存在，ID: 1"));
+        assertSameBytes(Result.success("注册成功"));
+        assertSameBytes(Result.success());
+    }
+}
@@ -0,0 +1,309 @@
+package com.qiang.taskmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 进程内端到端压测
+ * 启动完整应用并连接H2（MySQL兼容模式），按配置的数据量写入用户和任务，
+ * 多个客户端按固定比例混合执行登录、按ID查询、标题搜索、游标翻页、页码分页、创建和更新，
+ * 预热后统计每个接口的吞吐量和p50/p99/p999延迟。
+ *
+ * 运行方式：mvn -Ploadtest test -Dloadtest.tasks=500000 -Dloadtest.clients=64，
+ * 会依次运行本类和激活vt配置的TaskManagerVirtualThreadLoadTest，对比两种服务模式下的结果；
+ * H2与MySQL的执行计划和锁行为不同，结果用于对比同一环境下不同版本的容量变化，不代表生产环境的绝对值
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class TaskManagerLoadTest {
+
+    static final String PASSWORD = "loadtest-password";
+    static final String[] STATUSES = {"待办", "进行中", "已完成"};
+    static final String[] WORDS = {"编写", "修复", "评审", "部署", "测试", "接口", "文档", "登录", "报表", "缓存", "迁移", "监控"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${loadtest.users}")
+    private int users;
+
+    @Value("${loadtest.tasks}")
+    private int tasks;
+
+    @Value("${loadtest.clients}")
+    private int clients;
+
+    @Value("${loadtest.warmup-seconds}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.duration-seconds}")
+    private int durationSeconds;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * 建表并写入压测数据
+     * 在应用启动完成之前执行，保证标题索引和计数缓存加载到的是完整数据
+     */
+    @TestConfiguration
+    static class DataSeeder {
+
+        @Autowired
+        private DataSource dataSource;
+
+        @Autowired
+        private PasswordEncoder passwordEncoder;
+
+        @Value("${loadtest.users}")
+        private int users;
+
+        @Value("${loadtest.tasks}")
+        private int tasks;
+
+        @PostConstruct
+        public void seed() {
+            new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+            // 所有用户使用同一密码，只计算一次哈希
+            String encoded = passwordEncoder.encode(PASSWORD);
+            List<Object[]> userRows = new ArrayList<>(users);
+            for (int i = 1; i <= users; i++) {
+                userRows.add(new Object[]{"user" + i, encoded});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO user(username, password) VALUES(?, ?)", userRows);
+
+            LocalDateTime start = LocalDateTime.now().minusDays(365);
+            List<Object[]> taskRows = new ArrayList<>(1000);
+            for (int i = 1; i <= tasks; i++) {
+                Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i * 60L));
+                taskRows.add(new Object[]{title(i), STATUSES[i % STATUSES.length], createdAt, createdAt, 0L});
+                if (taskRows.size() == 1000 || i == tasks) {
+                    jdbcTemplate.batchUpdate("INSERT INTO task(title, status, created_at, updated_at, version) VALUES(?, ?, ?, ?, ?)", taskRows);
+                    taskRows.clear();
+                }
+            }
+        }
+    }
+
+    static String title(int seed) {
+        return WORDS[seed % WORDS.length] + WORDS[(seed / WORDS.length) % WORDS.length] + "任务" + seed;
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        run(warmupSeconds, new SimpleMeterRegistry());
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        long start = System.nanoTime();
+        run(durationSeconds, registry);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long total = report(registry, elapsedSeconds);
+        double errors = registry.find("loadtest.errors").counters().stream().mapToDouble(Counter::count).sum();
+        assertTrue(total > 0, "没有完成任何请求");
+        assertTrue(errors <= total * 0.01, "错误率超过1%：" + errors + "/" + total);
+    }
+
+    private void run(int seconds, MeterRegistry registry) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            String username = "user" + (i % users + 1);
+            executor.execute(() -> new Client(registry, username).runUntil(deadline));
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private long report(MeterRegistry registry, double elapsedSeconds) {
+        Map<String, Timer> timers = new TreeMap<>();
+        registry.find("loadtest.request").timers().forEach(timer -> timers.put(timer.getId().getTag("endpoint"), timer));
+
+        long total = 0;
+        // vt配置在JDK 21以下不生效，按实际使用的线程模式输出
+        String threading = Threading.VIRTUAL.isActive(environment) ? "虚拟线程" : "平台线程";
+        System.out.printf("%n压测结果（%s）：%d个客户端，%d个用户，%d个任务，%.1f秒%n", threading, clients, users, tasks, elapsedSeconds);
+        System.out.printf("%-28s %10s %10s %8s %10s %10s %10s%n", "endpoint", "requests", "req/s", "errors", "p50(ms)", "p99(ms)", "p999(ms)");
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            Timer timer = entry.getValue();
+            ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+            Counter errors = registry.find("loadtest.errors").tag("endpoint", entry.getKey()).counter();
+            System.out.printf("%-28s %10d %10.1f %8.0f %10.2f %10.2f %10.2f%n", entry.getKey(), timer.count(),
+                    timer.count() / elapsedSeconds, errors == null ? 0 : errors.count(),
+                    percentiles[0].value(TimeUnit.MILLISECONDS),
+                    percentiles[1].value(TimeUnit.MILLISECONDS),
+                    percentiles[2].value(TimeUnit.MILLISECONDS));
+            total += timer.count();
+        }
+        System.out.printf("%-28s %10d %10.1f%n%n", "total", total, total / elapsedSeconds);
+        return total;
+    }
+
+    /**
+     * 单个压测客户端，按比例随机选择操作
+     */
+    private class Client {
+
+        private final MeterRegistry registry;
+        private final String username;
+        private String token;
+
+        Client(MeterRegistry registry, String username) {
+            this.registry = registry;
+            this.username = username;
+        }
+
+        void runUntil(long deadline) {
+            login();
+            while (System.nanoTime() - deadline < 0) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int dice = random.nextInt(100);
+                long id = random.nextLong(1, tasks + 1);
+                if (dice < 2) {
+                    login();
+                } else if (dice < 42) {
+                    send("GET /tasks/{id}", get("/tasks/" + id));
+                } else if (dice < 52) {
+                    send("GET /tasks/search/title", get("/tasks/search/title?pageSize=20&title="
+                            + encode(WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)])));
+                } else if (dice < 67) {
+                    walkCursor(random.nextInt(1, 6));
+                } else if (dice < 77) {
+                    send("GET /tasks/page", get("/tasks/page?pageSize=20&pageNum=" + random.nextInt(1, 51)));
+                } else if (dice < 89) {
+                    send("POST /tasks", write("POST", "/tasks", random));
+                } else {
+                    send("PUT /tasks/{id}", write("PUT", "/tasks/" + id, random));
+                }
+            }
+        }
+
+        private void login() {
+            String body = "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+            JsonNode result = send("POST /users/login", request("/users/login")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+            if (result != null) {
+                token = result.path("data").asText();
+            }
+        }
+
+        // 从第一页开始按游标连续翻页
+        private void walkCursor(int pages) {
+            String cursor = null;
+            for (int i = 0; i < pages; i++) {
+                String path = "/tasks/cursor?pageSize=20" + (cursor == null ? "" : "&cursor=" + encode(cursor));
+                JsonNode result = send("GET /tasks/cursor", get(path));
+                if (result == null || !result.path("data").path("hasNext").asBoolean()) {
+                    return;
+                }
+                cursor = result.path("data").path("nextCursor").asText();
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).header("Authorization", "Bearer " + token).GET().build();
+        }
+
+        private HttpRequest write(String method, String path, ThreadLocalRandom random) {
+            int seed = random.nextInt(tasks);
+            String body = "{\"title\":\"" + title(seed) + "\",\"status\":\"" + STATUSES[seed % STATUSES.length] + "\"}";
+            return request(path)
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30));
+        }
+
+        /**
+         * 发送请求并记录耗时，HTTP状态码或Result.code不是200时计为错误
+         * @return 响应体，失败时返回null
+         */
+        private JsonNode send(String endpoint, HttpRequest request) {
+            long start = System.nanoTime();
+            JsonNode result = null;
+            try {
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 200) {
+                    JsonNode body = objectMapper.readTree(response.body());
+                    result = body.path("code").asInt() == 200 ? body : null;
+                }
+            } catch (Exception e) {
+                result = null;
+            }
+            Timer.builder("loadtest.request")
+                    .tag("endpoint", endpoint)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .distributionStatisticExpiry(Duration.ofHours(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (result == null) {
+                registry.counter("loadtest.errors", "endpoint", endpoint).increment();
+            }
+            return result;
+        }
+
+        private String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+}
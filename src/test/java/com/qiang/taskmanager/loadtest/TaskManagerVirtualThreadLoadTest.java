@@ -0,0 +1,18 @@
+package com.qiang.taskmanager.loadtest;
+
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 虚拟线程模式的进程内压测
+ * 与TaskManagerLoadTest使用相同的数据量、客户端数和请求比例，额外激活vt配置，
+ * 两次运行的结果即为同一应用在平台线程和虚拟线程下的对比；使用独立的H2内存库，避免与平台线程模式的数据混在一起
+ *
+ * 运行方式：mvn -Ploadtest test -Dtest=TaskManagerVirtualThreadLoadTest（需要JDK 21及以上，低版本仍使用平台线程）
+ */
+@ActiveProfiles("vt")
+@Import(TaskManagerLoadTest.DataSeeder.class)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:loadtest-vt;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+class TaskManagerVirtualThreadLoadTest extends TaskManagerLoadTest {
+}
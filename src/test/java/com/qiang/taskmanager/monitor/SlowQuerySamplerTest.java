@@ -0,0 +1,141 @@
+package com.qiang.taskmanager.monitor;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQuerySamplerTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Mock
+    private DataSource dataSource;
+
+    @InjectMocks
+    private SlowQuerySampler slowQuerySampler;
+
+    private Configuration configuration;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(slowQuerySampler, "explainEnabled", false);
+        slowQuerySampler.init();
+        // EXPLAIN在调用线程中执行，便于断言
+        ReflectionTestUtils.setField(slowQuerySampler, "explainExecutor", (Executor) Runnable::run);
+        configuration = new Configuration();
+    }
+
+    private MappedStatement statement(String id, String sql, String... properties) {
+        List<ParameterMapping> mappings = Arrays.stream(properties)
+                .map(property -> new ParameterMapping.Builder(configuration, property, Object.class).build())
+                .toList();
+        return new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, sql, mappings), SqlCommandType.SELECT).build();
+    }
+
+    // Executor.query(MappedStatement, Object, RowBounds, ResultHandler)的参数
+    private Object[] args(MappedStatement statement, Object parameter) {
+        return new Object[]{statement, parameter, null, null};
+    }
+
+    @Test
+    void onStatement_ShouldIgnoreFastStatements() {
+        MappedStatement statement = statement("TaskMapper.findById", "SELECT * FROM task WHERE id = ?", "id");
+
+        slowQuerySampler.onStatement(statement, args(statement, 1L), TimeUnit.MILLISECONDS.toNanos(10), null);
+
+        assertEquals(0, slowQuerySampler.getSlowCount());
+        assertTrue(slowQuerySampler.samples().isEmpty());
+    }
+
+    @Test
+    void onStatement_ShouldCaptureSqlAndMaskedParameters() {
+        // Arrange
+        MappedStatement statement = statement("UserMapper.findByCredentials",
+                "SELECT * FROM user WHERE username = ? AND password = ?", "username", "password");
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("username", "alice");
+        parameter.put("password", "secret");
+
+        // Act
+        slowQuerySampler.onStatement(statement, args(statement, parameter), SLOW, null);
+
+        // Assert
+        List<SlowQuery> samples = slowQuerySampler.samples();
+        assertEquals(1, samples.size());
+        SlowQuery sample = samples.get(0);
+        assertEquals("UserMapper.findByCredentials", sample.getStatement());
+        assertEquals(Arrays.asList("alice", "******"), sample.getParameters());
+        assertEquals(500.0, sample.getElapsedMillis());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void onStatement_ShouldRateLimitSamples() {
+        MappedStatement first = statement("TaskMapper.findAll", "SELECT * FROM task");
+        MappedStatement second = statement("TaskMapper.countAll", "SELECT COUNT(*) FROM task");
+
+        slowQuerySampler.onStatement(first, args(first, null), SLOW, null);
+        slowQuerySampler.onStatement(second, args(second, null), SLOW, null);
+        slowQuerySampler.onStatement(first, args(first, null), SLOW, null);
+
+        assertEquals(3, slowQuerySampler.getSlowCount());
+        assertEquals(1, slowQuerySampler.getSampledCount());
+        assertEquals("TaskMapper.findAll", slowQuerySampler.samples().get(0).getStatement());
+    }
+
+    @Test
+    void onStatement_ShouldCaptureExplainPlan() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(slowQuerySampler, "explainEnabled", true);
+        MappedStatement statement = statement("TaskMapper.findByTitleLike",
+                "SELECT * FROM task WHERE title LIKE ?", "title");
+        Connection connection = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("EXPLAIN SELECT * FROM task WHERE title LIKE ?")).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenReturn(true, false);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(metaData.getColumnLabel(1)).thenReturn("type");
+        when(resultSet.getObject(1)).thenReturn("ALL");
+
+        // Act
+        slowQuerySampler.onStatement(statement, args(statement, "%文档%"), SLOW, null);
+
+        // Assert
+        verify(preparedStatement).setObject(1, "%文档%");
+        SlowQuery sample = slowQuerySampler.samples().get(0);
+        assertEquals(List.of(Map.of("type", "ALL")), sample.getExplain());
+        assertNull(sample.getExplainError());
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.qiang.taskmanager.service.impl;
+
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.mapper.TaskMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TaskGroupCommitterTest {
+
+    private TaskMapper taskMapper;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private TaskGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        taskMapper = mock(TaskMapper.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        committer = new TaskGroupCommitter();
+        ReflectionTestUtils.setField(committer, "taskMapper", taskMapper);
+        ReflectionTestUtils.setField(committer, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(committer, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        // linger足够长，凑满一批后立即提交
+        ReflectionTestUtils.setField(committer, "lingerMillis", 5000L);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 3);
+        committer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.shutdown();
+    }
+
+    private Task task(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setStatus("待办");
+        return task;
+    }
+
+    @Test
+    void submit_ShouldInsertConcurrentTasksInOneCommit() throws Exception {
+        // Arrange - 模拟useGeneratedKeys按顺序回填ID
+        doAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).setId(10L + i);
+            }
+            return null;
+        }).when(taskMapper).insertBatch(anyList());
+
+        // Act
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            futures.add(committer.submit(task("任务" + i)));
+        }
+
+        // Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(10L + i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        verify(taskMapper, times(1)).insertBatch(argThat(tasks -> tasks.size() == 3));
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher, times(3)).publishEvent(any(TaskChangeEvent.class));
+    }
+
+    @Test
+    void submit_ShouldRetryIndividually_WhenBatchInsertFails() throws Exception {
+        // Arrange
+        Task invalid = task("无效任务");
+        doThrow(new RuntimeException("批量插入失败")).when(taskMapper).insertBatch(anyList());
+        doThrow(new RuntimeException("标题过长")).when(taskMapper).insert(invalid);
+
+        // Act
+        CompletableFuture<Long> first = committer.submit(task("任务1"));
+        CompletableFuture<Long> failed = committer.submit(invalid);
+        CompletableFuture<Long> last = committer.submit(task("任务3"));
+
+        // Assert - 只有无效任务失败
+        first.get(5, TimeUnit.SECONDS);
+        last.get(5, TimeUnit.SECONDS);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertEquals("标题过长", exception.getCause().getMessage());
+        verify(taskMapper, times(3)).insert(any(Task.class));
+        verify(eventPublisher, times(2)).publishEvent(any(TaskChangeEvent.class));
+        verify(eventPublisher, never()).publishEvent(argThat((Object event) ->
+                event instanceof TaskChangeEvent && ((TaskChangeEvent) event).getAfter() == invalid));
+    }
+
+    // 让写线程阻塞在第一次批量插入中
+    private CountDownLatch blockInsert(CountDownLatch release) {
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(taskMapper).insertBatch(anyList());
+        return started;
+    }
+
+    @Test
+    void insert_ShouldCancelRequest_WhenWaitTimesOut() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(committer, "lingerMillis", 0L);
+        ReflectionTestUtils.setField(committer, "waitTimeoutMillis", 50L);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = blockInsert(release);
+        committer.submit(task("任务1"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        assertThrows(TimeoutException.class, () -> committer.insert(task("任务2")));
+        release.countDown();
+        committer.shutdown();
+
+        // Assert - 超时的请求没有写入
+        verify(taskMapper, times(1)).insertBatch(anyList());
+        verify(taskMapper, never()).insert(any(Task.class));
+    }
+
+    @Test
+    void insert_ShouldPublishCreatedEvent_WhenCommitFinishesAfterTimeout() throws Exception {
+        // Arrange - 写线程已开始插入后调用方才超时
+        ReflectionTestUtils.setField(committer, "lingerMillis", 0L);
+        ReflectionTestUtils.setField(committer, "waitTimeoutMillis", 500L);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = blockInsert(release);
+        Task task = task("任务1");
+
+        // Act
+        assertThrows(TimeoutException.class, () -> committer.insert(task));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        committer.shutdown();
+
+        // Assert - 任务最终提交，创建事件照常发布
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof TaskChangeEvent && ((TaskChangeEvent) event).getAfter() == task));
+    }
+
+    @Test
+    void shutdown_ShouldFailQueuedRequests_WhenWriterDoesNotFinish() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(committer, "lingerMillis", 0L);
+        ReflectionTestUtils.setField(committer, "timeoutSeconds", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = blockInsert(release);
+        committer.submit(task("任务1"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> queued = committer.submit(task("任务2"));
+
+        // Act
+        try {
+            committer.shutdown();
+        } finally {
+            release.countDown();
+        }
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertThrows(RejectedExecutionException.class, () -> committer.submit(task("任务3")));
+    }
+}
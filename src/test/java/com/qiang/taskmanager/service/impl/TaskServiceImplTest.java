@@ -1,25 +1,51 @@
 package com.qiang.taskmanager.service.impl;
 
 import com.github.pagehelper.PageInfo;
+import com.qiang.taskmanager.cache.TaskCountCache;
+import com.qiang.taskmanager.cache.TaskNearCache;
+import com.qiang.taskmanager.common.BatchResult;
+import com.qiang.taskmanager.common.BulkStatusRequest;
+import com.qiang.taskmanager.common.CountMode;
+import com.qiang.taskmanager.common.CursorPage;
+import com.qiang.taskmanager.common.TaskChanges;
 import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.entity.TaskTombstone;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import com.qiang.taskmanager.index.TaskTitleIndex;
 import com.qiang.taskmanager.mapper.TaskMapper;
+import com.qiang.taskmanager.exception.TaskConflictException;
 import com.qiang.taskmanager.exception.TaskNotFoundException;
+import com.qiang.taskmanager.exception.InvalidCursorException;
+import com.qiang.taskmanager.exception.InvalidParameterException;
+import com.qiang.taskmanager.exception.SyncTokenExpiredException;
 import com.qiang.taskmanager.exception.TaskOperationException;
+import com.qiang.taskmanager.util.SyncToken;
+import com.qiang.taskmanager.util.TaskCursor;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -29,10 +55,32 @@ class TaskServiceImplTest {
     @Mock
     private TaskMapper taskMapper;
 
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TaskTitleIndex taskTitleIndex;
+
+    @Spy
+    private TaskNearCache taskNearCache = newNearCache(false);
+
+    @Mock
+    private TaskGroupCommitter groupCommitter;
+
     @InjectMocks
     private TaskServiceImpl taskService;
 
     private Task testTask;
+
+    private static TaskNearCache newNearCache(boolean negativeEnabled) {
+        TaskNearCache cache = new TaskNearCache();
+        ReflectionTestUtils.setField(cache, "negativeEnabled", negativeEnabled);
+        cache.init();
+        return cache;
+    }
     private List<Task> testTasks;
 
     @BeforeEach
@@ -86,6 +134,24 @@ class TaskServiceImplTest {
         assertNotNull(exception.getCause());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAll_ShouldPassEachTaskAndCloseCursor() throws Exception {
+        // Arrange
+        // forEach是Iterable的默认方法，需要调用真实实现才会遍历iterator()
+        Cursor<Task> cursor = mock(Cursor.class, CALLS_REAL_METHODS);
+        doReturn(testTasks.iterator()).when(cursor).iterator();
+        when(taskMapper.scanAll()).thenReturn(cursor);
+        List<Task> received = new ArrayList<>();
+
+        // Act
+        taskService.streamAll(received::add);
+
+        // Assert
+        assertEquals(testTasks, received);
+        verify(cursor).close();
+    }
+
     @Test
     void findById_ShouldReturnTask_WhenTaskExists() {
         // Arrange
@@ -114,6 +180,33 @@ class TaskServiceImplTest {
         verify(taskMapper, times(1)).findById(999L);
     }
 
+    @Test
+    void findById_ShouldServeFromNearCache_UntilTaskChanges() {
+        // Arrange
+        when(taskMapper.findById(1L)).thenReturn(testTask);
+
+        // Act
+        taskService.findById(1L);
+        taskService.findById(1L);
+        taskNearCache.onTaskChanged(TaskChangeEvent.updated(null, testTask));
+        taskService.findById(1L);
+
+        // Assert
+        verify(taskMapper, times(2)).findById(1L);
+    }
+
+    @Test
+    void findById_ShouldCacheMissingId_WhenNegativeCachingEnabled() {
+        // Arrange
+        ReflectionTestUtils.setField(taskService, "taskNearCache", newNearCache(true));
+        when(taskMapper.findById(999L)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(TaskNotFoundException.class, () -> taskService.findById(999L));
+        assertThrows(TaskNotFoundException.class, () -> taskService.findById(999L));
+        verify(taskMapper, times(1)).findById(999L);
+    }
+
     @Test
     void findById_ShouldThrowTaskOperationException_WhenMapperFails() {
         // Arrange
@@ -142,6 +235,196 @@ class TaskServiceImplTest {
         // Assert
         verify(taskMapper, times(1)).insert(any(Task.class));
         assertNotNull(newTask.getCreatedAt());
+        verify(eventPublisher, times(1)).publishEvent(any(TaskChangeEvent.class));
+    }
+
+    @Test
+    void createTask_ShouldWaitForGroupCommit_WhenEnabled() throws Exception {
+        // Arrange
+        Task newTask = new Task();
+        newTask.setTitle("新任务");
+        newTask.setStatus("pending");
+        when(groupCommitter.isEnabled()).thenReturn(true);
+        when(groupCommitter.insert(newTask)).thenReturn(5L);
+
+        // Act
+        taskService.createTask(newTask);
+
+        // Assert
+        verify(taskMapper, never()).insert(any(Task.class));
+        assertNotNull(newTask.getUpdatedAt());
+        // 创建事件由组提交的写线程发布
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void createTask_ShouldThrowTaskOperationException_WhenGroupCommitFails() throws Exception {
+        // Arrange
+        Task newTask = new Task();
+        RuntimeException cause = new RuntimeException("插入错误");
+        when(groupCommitter.isEnabled()).thenReturn(true);
+        when(groupCommitter.insert(newTask)).thenThrow(new ExecutionException(cause));
+
+        // Act & Assert
+        TaskOperationException exception = assertThrows(TaskOperationException.class,
+                () -> taskService.createTask(newTask));
+        assertSame(cause, exception.getCause());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void createTask_ShouldThrowTaskOperationException_WhenGroupCommitTimesOut() throws Exception {
+        // Arrange
+        Task newTask = new Task();
+        when(groupCommitter.isEnabled()).thenReturn(true);
+        when(groupCommitter.insert(newTask)).thenThrow(new TimeoutException());
+
+        // Act & Assert
+        assertThrows(TaskOperationException.class, () -> taskService.createTask(newTask));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private Task newTask(String title, String status) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setStatus(status);
+        return task;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createTasks_ShouldReturnGeneratedIdsInOrder() {
+        // Arrange
+        List<Task> tasks = Arrays.asList(newTask("任务A", "pending"), newTask("任务B", "pending"));
+        long[] nextId = {100L};
+        doAnswer(invocation -> {
+            List<Task> chunk = invocation.getArgument(0);
+            chunk.forEach(task -> task.setId(nextId[0]++));
+            return null;
+        }).when(taskMapper).insertBatch(anyList());
+
+        // Act
+        BatchResult result = taskService.createTasks(tasks, false);
+
+        // Assert
+        assertEquals(Arrays.asList(100L, 101L), result.getIds());
+        assertEquals(2, result.getCreated());
+        assertTrue(result.getErrors().isEmpty());
+        verify(taskMapper, times(1)).insertBatch(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(TaskChangeEvent.class));
+    }
+
+    @Test
+    void createTasks_ShouldSkipInvalidTasks_WhenPartial() {
+        // Arrange
+        List<Task> tasks = Arrays.asList(newTask("", "pending"), newTask("任务B", "pending"), newTask("任务C", null));
+        doAnswer(invocation -> {
+            List<Task> chunk = invocation.getArgument(0);
+            chunk.get(0).setId(7L);
+            return null;
+        }).when(taskMapper).insertBatch(anyList());
+
+        // Act
+        BatchResult result = taskService.createTasks(tasks, true);
+
+        // Assert
+        assertEquals(Arrays.asList(null, 7L, null), result.getIds());
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(0, result.getErrors().get(0).getIndex());
+        assertEquals("状态不能为空", result.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void createTasks_ShouldRejectWholeBatch_WhenNotPartial() {
+        // Arrange
+        List<Task> tasks = Arrays.asList(newTask("任务A", "pending"), newTask(null, "pending"));
+
+        // Act & Assert
+        assertThrows(InvalidParameterException.class, () -> taskService.createTasks(tasks, false));
+        verify(taskMapper, never()).insertBatch(anyList());
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldUpdateByIdsInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(taskService, "bulkChunkSize", 2);
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setIds(Arrays.asList(1L, 2L, 3L));
+        request.setToStatus("done");
+        when(taskMapper.updateStatusByIds(eq(Arrays.asList(1L, 2L)), isNull(), eq("done"), any(LocalDateTime.class)))
+                .thenReturn(2);
+        when(taskMapper.updateStatusByIds(eq(Collections.singletonList(3L)), isNull(), eq("done"), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // Act
+        int affected = taskService.updateStatusInBulk(request);
+
+        // Assert
+        assertEquals(3, affected);
+        verify(eventPublisher, times(2)).publishEvent(any(TaskStatusBulkChangeEvent.class));
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldUpdateByFilterUntilNoRowsLeft() {
+        // Arrange
+        LocalDateTime before = LocalDateTime.of(2024, 1, 1, 0, 0);
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setFromStatus("pending");
+        request.setCreatedBefore(before);
+        request.setToStatus("done");
+        when(taskMapper.findIdsByStatus("pending", before, 500))
+                .thenReturn(Arrays.asList(1L, 2L))
+                .thenReturn(Collections.emptyList());
+        when(taskMapper.updateStatusByIds(eq(Arrays.asList(1L, 2L)), eq("pending"), eq("done"), any(LocalDateTime.class)))
+                .thenReturn(2);
+
+        // Act
+        int affected = taskService.updateStatusInBulk(request);
+
+        // Assert
+        assertEquals(2, affected);
+        verify(taskMapper, times(2)).findIdsByStatus("pending", before, 500);
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldStopFilterMode_WhenChunkChangesNothing() {
+        // Arrange - 取回的行无法修改，再次查询仍返回同一批ID
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setFromStatus("pending");
+        request.setToStatus("done");
+        when(taskMapper.findIdsByStatus("pending", null, 500)).thenReturn(Arrays.asList(1L, 2L));
+        when(taskMapper.updateStatusByIds(eq(Arrays.asList(1L, 2L)), eq("pending"), eq("done"), any(LocalDateTime.class)))
+                .thenReturn(0);
+
+        // Act
+        int affected = taskService.updateStatusInBulk(request);
+
+        // Assert
+        assertEquals(0, affected);
+        verify(taskMapper, times(1)).findIdsByStatus("pending", null, 500);
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldRejectStatusesEqualUnderCollation() {
+        for (String[] pair : new String[][]{{"todo", "TODO"}, {"cafe", "Café"}}) {
+            BulkStatusRequest request = new BulkStatusRequest();
+            request.setFromStatus(pair[0]);
+            request.setToStatus(pair[1]);
+
+            assertThrows(InvalidParameterException.class, () -> taskService.updateStatusInBulk(request));
+        }
+        verify(taskMapper, never()).findIdsByStatus(any(), any(), anyInt());
+    }
+
+    @Test
+    void updateStatusInBulk_ShouldRejectSameStatus() {
+        BulkStatusRequest request = new BulkStatusRequest();
+        request.setFromStatus("done");
+        request.setToStatus("done");
+
+        assertThrows(InvalidParameterException.class, () -> taskService.updateStatusInBulk(request));
+        verifyNoInteractions(taskMapper);
     }
 
     @Test
@@ -167,15 +450,15 @@ class TaskServiceImplTest {
         updatedTask.setId(1L);
         updatedTask.setTitle("更新后的任务");
 
-        when(taskMapper.findById(1L)).thenReturn(testTask);
-        doNothing().when(taskMapper).update(any(Task.class));
+        when(taskMapper.update(updatedTask)).thenReturn(1);
 
         // Act
         taskService.updateTask(updatedTask);
 
         // Assert
-        verify(taskMapper, times(1)).findById(1L);
         verify(taskMapper, times(1)).update(updatedTask);
+        verify(taskMapper, never()).findById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(any(TaskChangeEvent.class));
     }
 
     @Test
@@ -184,43 +467,90 @@ class TaskServiceImplTest {
         Task updatedTask = new Task();
         updatedTask.setId(999L);
 
-        when(taskMapper.findById(999L)).thenReturn(null);
+        when(taskMapper.update(updatedTask)).thenReturn(0);
 
         // Act & Assert
         TaskNotFoundException exception = assertThrows(TaskNotFoundException.class,
                 () -> taskService.updateTask(updatedTask));
 
         assertEquals("任务不存在，无法更新，ID: 999", exception.getMessage());
-        verify(taskMapper, times(1)).findById(999L);
-        verify(taskMapper, never()).update(any(Task.class));
+        verify(taskMapper, never()).existsById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void updateTask_ShouldIncrementVersion_WhenVersionMatches() {
+        // Arrange
+        Task updatedTask = new Task();
+        updatedTask.setId(1L);
+        updatedTask.setVersion(3L);
+
+        when(taskMapper.update(updatedTask)).thenReturn(1);
+
+        // Act
+        taskService.updateTask(updatedTask);
+
+        // Assert
+        assertEquals(4L, updatedTask.getVersion());
+    }
+
+    @Test
+    void updateTask_ShouldThrowTaskConflictException_WhenVersionIsStale() {
+        // Arrange
+        Task updatedTask = new Task();
+        updatedTask.setId(1L);
+        updatedTask.setVersion(3L);
+
+        when(taskMapper.update(updatedTask)).thenReturn(0);
+        when(taskMapper.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(TaskConflictException.class, () -> taskService.updateTask(updatedTask));
+        assertEquals(3L, updatedTask.getVersion());
+    }
+
+    @Test
+    void updateTask_ShouldThrowTaskNotFoundException_WhenVersionedTaskNotExists() {
+        // Arrange
+        Task updatedTask = new Task();
+        updatedTask.setId(999L);
+        updatedTask.setVersion(3L);
+
+        when(taskMapper.update(updatedTask)).thenReturn(0);
+        when(taskMapper.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(TaskNotFoundException.class, () -> taskService.updateTask(updatedTask));
     }
 
     @Test
     void deleteById_ShouldDeleteTask_WhenTaskExists() {
         // Arrange
-        when(taskMapper.findById(1L)).thenReturn(testTask);
-        doNothing().when(taskMapper).deleteById(1L);
+        when(taskMapper.deleteById(1L)).thenReturn(1);
 
         // Act
         taskService.deleteById(1L);
 
         // Assert
-        verify(taskMapper, times(1)).findById(1L);
         verify(taskMapper, times(1)).deleteById(1L);
+        verify(taskMapper, times(1)).insertTombstone(eq(1L), any(LocalDateTime.class));
+        verify(taskMapper, never()).findById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(any(TaskChangeEvent.class));
     }
 
     @Test
     void deleteById_ShouldThrowTaskNotFoundException_WhenTaskNotExists() {
         // Arrange
-        when(taskMapper.findById(999L)).thenReturn(null);
+        when(taskMapper.deleteById(999L)).thenReturn(0);
 
         // Act & Assert
         TaskNotFoundException exception = assertThrows(TaskNotFoundException.class,
                 () -> taskService.deleteById(999L));
 
         assertEquals("任务不存在，无法删除，ID: 999", exception.getMessage());
-        verify(taskMapper, times(1)).findById(999L);
-        verify(taskMapper, never()).deleteById(anyLong());
+        verify(taskMapper, times(1)).deleteById(999L);
+        verify(taskMapper, never()).insertTombstone(anyLong(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -237,6 +567,34 @@ class TaskServiceImplTest {
         verify(taskMapper, times(1)).findAll();
     }
 
+    @Test
+    void findTasksWithPage_ShouldUseCachedTotal_WhenCountModeIsApprox() {
+        // Arrange
+        when(taskMapper.findAll()).thenReturn(testTasks);
+        when(taskCountCache.countAll()).thenReturn(42L);
+
+        // Act
+        PageInfo<Task> result = taskService.findTasksWithPage(1, 10, CountMode.APPROX);
+
+        // Assert
+        assertEquals(42L, result.getTotal());
+        verify(taskCountCache, times(1)).countAll();
+    }
+
+    @Test
+    void findTasksWithPage_ShouldSkipCount_WhenCountModeIsNone() {
+        // Arrange
+        when(taskMapper.findAll()).thenReturn(testTasks);
+
+        // Act
+        PageInfo<Task> result = taskService.findTasksWithPage(1, 3, CountMode.NONE);
+
+        // Assert
+        assertTrue(result.isHasNextPage());
+        assertFalse(result.isIsLastPage());
+        verifyNoInteractions(taskCountCache);
+    }
+
     @Test
     void findTasksByTitleWithPage_ShouldReturnPagedTasks() {
         // Arrange
@@ -253,6 +611,36 @@ class TaskServiceImplTest {
         verify(taskMapper, times(1)).findByTitleLike("测试");
     }
 
+    @Test
+    void findTasksByTitleWithPage_ShouldQueryCandidates_WhenIndexReady() {
+        // Arrange
+        long[] candidateIds = {1L, 2L};
+        List<Task> filteredTasks = Arrays.asList(testTasks.get(0), testTasks.get(1));
+        when(taskTitleIndex.candidates("测试任")).thenReturn(candidateIds);
+        when(taskMapper.findByIdsAndTitleLike(candidateIds, "测试任")).thenReturn(filteredTasks);
+
+        // Act
+        PageInfo<Task> result = taskService.findTasksByTitleWithPage("测试任", 1, 10);
+
+        // Assert
+        assertEquals(2, result.getList().size());
+        verify(taskMapper, never()).findByTitleLike(anyString());
+    }
+
+    @Test
+    void findTasksByTitleWithPage_ShouldReturnEmptyPage_WhenIndexHasNoCandidates() {
+        // Arrange
+        when(taskTitleIndex.candidates("不存在")).thenReturn(new long[0]);
+
+        // Act
+        PageInfo<Task> result = taskService.findTasksByTitleWithPage("不存在", 1, 10);
+
+        // Assert
+        assertTrue(result.getList().isEmpty());
+        assertEquals(0, result.getTotal());
+        verifyNoInteractions(taskMapper);
+    }
+
     @Test
     void findTasksByStatusWithPage_ShouldReturnPagedTasks() {
         // Arrange
@@ -307,4 +695,126 @@ class TaskServiceImplTest {
         assertEquals("根据状态分页查询任务失败", exception.getMessage());
         assertNotNull(exception.getCause());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findTasksWithCursor_ShouldReturnNextCursor_WhenMoreTasksExist() {
+        // Arrange - 每页2条，多查询1条用于判断是否有下一页
+        when(taskMapper.findAfter(isNull(), isNull(), eq(3))).thenReturn(testTasks);
+
+        // Act
+        CursorPage<Task> result = taskService.findTasksWithCursor(null, 2);
+
+        // Assert
+        assertEquals(2, result.getList().size());
+        assertTrue(result.isHasNext());
+        TaskCursor next = TaskCursor.decode(result.getNextCursor());
+        assertEquals(2L, next.getId());
+        assertEquals(testTasks.get(1).getCreatedAt(), next.getCreatedAt());
+    }
+
+    @Test
+    void findTasksWithCursor_ShouldContinueFromCursor_WhenCursorGiven() {
+        // Arrange
+        Task last = testTasks.get(1);
+        String cursor = TaskCursor.of(last).encode();
+        when(taskMapper.findAfter(eq(last.getCreatedAt()), eq(2L), eq(11)))
+                .thenReturn(Collections.singletonList(testTasks.get(2)));
+
+        // Act
+        CursorPage<Task> result = taskService.findTasksWithCursor(cursor, 10);
+
+        // Assert
+        assertEquals(1, result.getList().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findTasksWithCursor_ShouldThrowInvalidCursorException_WhenCursorMalformed() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> taskService.findTasksWithCursor("not-a-cursor", 10));
+        verify(taskMapper, never()).findAfter(any(), any(), anyInt());
+    }
+
+    private Task changedTask(Long id, LocalDateTime updatedAt) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUpdatedAt(updatedAt);
+        return task;
+    }
+
+    private TaskTombstone tombstone(Long taskId, LocalDateTime deletedAt) {
+        TaskTombstone tombstone = new TaskTombstone();
+        tombstone.setTaskId(taskId);
+        tombstone.setDeletedAt(deletedAt);
+        return tombstone;
+    }
+
+    @Test
+    void findChanges_ShouldMergeTasksAndTombstonesInChangeOrder() {
+        // Arrange - 每次2条，任务和墓碑各多查询1条
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        String token = new SyncToken(since, 7L).encode();
+        when(taskMapper.findChangedBetween(eq(since), eq(7L), any(LocalDateTime.class), eq(3)))
+                .thenReturn(Arrays.asList(changedTask(3L, since.plusMinutes(1)), changedTask(1L, since.plusMinutes(3))));
+        when(taskMapper.findTombstonesBetween(eq(since), eq(7L), any(LocalDateTime.class), eq(3)))
+                .thenReturn(Collections.singletonList(tombstone(5L, since.plusMinutes(2))));
+
+        // Act
+        TaskChanges changes = taskService.findChanges(token, 2);
+
+        // Assert - 第3条变更留到下一次返回
+        assertEquals(1, changes.getUpdated().size());
+        assertEquals(3L, changes.getUpdated().get(0).getId());
+        assertEquals(Collections.singletonList(5L), changes.getDeleted());
+        assertTrue(changes.isHasMore());
+        SyncToken next = SyncToken.decode(changes.getNextToken());
+        assertEquals(since.plusMinutes(2), next.getChangedAt());
+        assertEquals(5L, next.getId());
+    }
+
+    @Test
+    void findChanges_ShouldAdvanceToWatermark_WhenAllChangesReturned() {
+        // Arrange - 首次同步不查询墓碑
+        LocalDateTime before = LocalDateTime.now();
+        when(taskMapper.findChangedBetween(isNull(), isNull(), any(LocalDateTime.class), eq(11)))
+                .thenReturn(Collections.singletonList(changedTask(1L, before.minusHours(1))));
+
+        // Act
+        TaskChanges changes = taskService.findChanges(null, 10);
+
+        // Assert - 令牌推进到安全水位，不超过当前时间减去safety-lag
+        assertEquals(1, changes.getUpdated().size());
+        assertFalse(changes.isHasMore());
+        SyncToken next = SyncToken.decode(changes.getNextToken());
+        assertFalse(next.getChangedAt().isAfter(LocalDateTime.now().minusSeconds(10)));
+        assertTrue(next.getChangedAt().isAfter(before.minusSeconds(11)));
+        assertEquals(0L, next.getId());
+        verify(taskMapper, never()).findTombstonesBetween(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findChanges_ShouldKeepToken_WhenTokenIsWithinSafetyLag() {
+        // Arrange
+        String token = new SyncToken(LocalDateTime.now(), 0L).encode();
+
+        // Act
+        TaskChanges changes = taskService.findChanges(token, 10);
+
+        // Assert
+        assertEquals(token, changes.getNextToken());
+        assertFalse(changes.isHasMore());
+        verifyNoInteractions(taskMapper);
+    }
+
+    @Test
+    void findChanges_ShouldThrowSyncTokenExpiredException_WhenTokenOlderThanRetention() {
+        // Arrange
+        String token = new SyncToken(LocalDateTime.now().minusDays(31), 1L).encode();
+
+        // Act & Assert
+        assertThrows(SyncTokenExpiredException.class, () -> taskService.findChanges(token, 10));
+        assertThrows(InvalidCursorException.class, () -> taskService.findChanges("not-a-token", 10));
+        verifyNoInteractions(taskMapper);
+    }
+}
@@ -4,11 +4,13 @@ import com.qiang.taskmanager.entity.User;
 import com.qiang.taskmanager.mapper.UserMapper;
 import com.qiang.taskmanager.exception.TaskOperationException;
 import com.qiang.taskmanager.exception.TaskNotFoundException;
+import com.qiang.taskmanager.util.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -26,6 +28,9 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(10, 2, 16, 5000L);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -222,6 +227,28 @@ class UserServiceImplTest {
         verify(userMapper, times(1)).findByUsername("testuser");
     }
 
+    @Test
+    void login_ShouldRehashPassword_WhenStoredCostDiffersFromConfigured() {
+        // Arrange
+        String rawPassword = "correctpassword";
+        String weakPassword = new BCryptPasswordEncoder(4).encode(rawPassword);
+
+        User userWithWeakPassword = new User();
+        userWithWeakPassword.setId(1L);
+        userWithWeakPassword.setUsername("testuser");
+        userWithWeakPassword.setPassword(weakPassword);
+
+        when(userMapper.findByUsername("testuser")).thenReturn(userWithWeakPassword);
+
+        // Act
+        User result = userService.login("testuser", rawPassword);
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.getPassword().startsWith("$2a$10$"));
+        verify(userMapper, times(1)).update(any(User.class));
+    }
+
     @Test
     void login_ShouldReturnNull_WhenPasswordIsIncorrect() {
         // Arrange
@@ -0,0 +1,187 @@
+package com.qiang.taskmanager.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qiang.taskmanager.entity.Task;
+import com.qiang.taskmanager.event.TaskChangeEvent;
+import com.qiang.taskmanager.event.TaskStatusBulkChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class TaskChangeFeedTest {
+
+    private TaskChangeFeed feed;
+    private MockMvc mockMvc;
+    private String epoch;
+
+    @RestController
+    static class StreamController {
+        private final TaskChangeFeed feed;
+
+        StreamController(TaskChangeFeed feed) {
+            this.feed = feed;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return feed.subscribe(lastEventId);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        feed = new TaskChangeFeed();
+        ReflectionTestUtils.setField(feed, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(feed, "bufferSize", 8);
+        ReflectionTestUtils.setField(feed, "queueCapacity", 4);
+        feed.init();
+        epoch = (String) ReflectionTestUtils.getField(feed, "epoch");
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    private Task task(Long id, String title) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        task.setStatus("进行中");
+        return task;
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        return mockMvc.perform(lastEventId == null ? get("/stream") : get("/stream").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // 事件由分发线程异步写出，等待响应中出现全部期望的内容
+    private String awaitBody(MvcResult result, String... expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body;
+        do {
+            body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+            String current = body;
+            if (Arrays.stream(expected).allMatch(current::contains)) {
+                return body;
+            }
+            Thread.sleep(10);
+        } while (System.nanoTime() < deadline);
+        fail("等待推送超时，期望包含" + Arrays.toString(expected) + "，实际为：" + body);
+        return body;
+    }
+
+    private String id(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    @Test
+    void publish_ShouldPushEventsToSubscribers() throws Exception {
+        MvcResult first = subscribe(null);
+        MvcResult second = subscribe(null);
+
+        feed.onTaskChanged(TaskChangeEvent.created(task(1L, "编写文档")));
+        feed.onStatusBulkChanged(new TaskStatusBulkChangeEvent(Arrays.asList(1L, 2L), null, "已完成", 2));
+
+        for (MvcResult result : Arrays.asList(first, second)) {
+            awaitBody(result, ":connected",
+                    "id:" + id(1) + "\nevent:created\ndata:{\"taskId\":1,\"task\":{\"id\":1,\"title\":\"编写文档\"",
+                    "id:" + id(2) + "\nevent:status\ndata:{\"taskIds\":[1,2],\"toStatus\":\"已完成\"}");
+        }
+    }
+
+    @Test
+    void subscribe_ShouldReplayMissedEvents_WhenLastEventIdIsBuffered() throws Exception {
+        feed.onTaskChanged(TaskChangeEvent.created(task(1L, "任务1")));
+        feed.onTaskChanged(TaskChangeEvent.updated(null, task(1L, "任务1-修改")));
+        feed.onTaskChanged(TaskChangeEvent.deleted(1L, null));
+
+        String body = awaitBody(subscribe(id(1)),
+                "id:" + id(2) + "\nevent:updated",
+                "id:" + id(3) + "\nevent:deleted\ndata:{\"taskId\":1,\"task\":null}");
+
+        assertFalse(body.contains("event:created"));
+    }
+
+    @Test
+    void subscribe_ShouldRequestResync_WhenMissedEventsAreGone() throws Exception {
+        for (long id = 1; id <= 10; id++) {
+            feed.onTaskChanged(TaskChangeEvent.created(task(id, "任务" + id)));
+        }
+
+        String body = awaitBody(subscribe(id(1)), "id:" + id(10) + "\nevent:resync");
+
+        assertFalse(body.contains("event:created"));
+    }
+
+    @Test
+    void subscribe_ShouldRequestResync_WhenLastEventIdIsUnknown() throws Exception {
+        feed.onTaskChanged(TaskChangeEvent.created(task(1L, "任务1")));
+
+        // 重启前的进程发出的ID，以及超出当前序号的ID
+        awaitBody(subscribe("1-7"), "id:" + id(1) + "\nevent:resync");
+        awaitBody(subscribe(id(5)), "id:" + id(1) + "\nevent:resync");
+    }
+
+    @Test
+    void publish_ShouldResyncSlowConsumer_WhenQueueIsFull() throws Exception {
+        // 分发线程被阻塞，事件在队列中积压
+        List<Runnable> pending = new ArrayList<>();
+        ReflectionTestUtils.setField(feed, "dispatcher", (Executor) pending::add);
+        MvcResult result = subscribe(null);
+
+        for (long id = 1; id <= 6; id++) {
+            feed.onTaskChanged(TaskChangeEvent.created(task(id, "任务" + id)));
+        }
+        ReflectionTestUtils.setField(feed, "dispatcher", (Executor) Runnable::run);
+        pending.forEach(Runnable::run);
+
+        String body = awaitBody(result, "event:resync", "id:" + id(6) + "\nevent:created");
+        assertFalse(body.contains("id:" + id(1) + "\nevent:created"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkWriteTimeouts_ShouldEvictStalledSubscriberAndAddDispatcherThread() throws Exception {
+        // 模拟一次已经持续10秒的写出
+        ReflectionTestUtils.setField(feed, "dispatcher", (Executor) runnable -> {
+        });
+        subscribe(null);
+        Set<Object> subscribers = (Set<Object>) ReflectionTestUtils.getField(feed, "subscribers");
+        Object subscriber = subscribers.iterator().next();
+        ((AtomicLong) ReflectionTestUtils.getField(subscriber, "sendStartedAt"))
+                .set(System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+
+        feed.checkWriteTimeouts();
+
+        assertTrue(subscribers.isEmpty());
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(feed, "dispatcherPool");
+        assertEquals(3, pool.getCorePoolSize());
+        assertEquals(3, pool.getMaximumPoolSize());
+    }
+}
@@ -0,0 +1,55 @@
+package com.qiang.taskmanager.sync;
+
+import com.qiang.taskmanager.mapper.TaskMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskTombstoneCompactorTest {
+
+    @Mock
+    private TaskMapper taskMapper;
+
+    @InjectMocks
+    private TaskTombstoneCompactor compactor;
+
+    @Test
+    void compact_ShouldDeleteInChunksUntilFewerRowsRemain() {
+        // Arrange
+        ReflectionTestUtils.setField(compactor, "chunkSize", 2);
+        when(taskMapper.deleteTombstonesBefore(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        // Act
+        int removed = compactor.compact();
+
+        // Assert - 只删除超过30天保留期的墓碑
+        assertEquals(5, removed);
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        verify(taskMapper, times(3)).deleteTombstonesBefore(
+                argThat(before -> !before.isAfter(cutoff) && before.isAfter(cutoff.minusMinutes(1))), eq(2));
+    }
+
+    @Test
+    void compact_ShouldStopAndReturnRemovedCount_WhenDeleteFails() {
+        // Arrange
+        ReflectionTestUtils.setField(compactor, "chunkSize", 2);
+        when(taskMapper.deleteTombstonesBefore(any(LocalDateTime.class), eq(2)))
+                .thenReturn(2)
+                .thenThrow(new RuntimeException("锁等待超时"));
+
+        // Act & Assert
+        assertEquals(2, compactor.compact());
+    }
+}
@@ -0,0 +1,78 @@
+package com.qiang.taskmanager.util;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(86400000L);
+    }
+
+    private JwtUtil newJwtUtil(long expiration) {
+        return newJwtUtil("my256BitSecretKeyWith32CharactersMyNameIsLiYaQiang", expiration);
+    }
+
+    private JwtUtil newJwtUtil(String secret, long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "cacheMaximumSize", 100L);
+        util.init();
+        return util;
+    }
+
+    @Test
+    void verify_ShouldReturnUsername_WhenTokenIsValid() {
+        // Arrange
+        String token = jwtUtil.generateToken("testuser");
+
+        // Act
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        // Assert
+        assertEquals("testuser", verified.getUsername());
+        assertFalse(verified.isExpired());
+        assertTrue(jwtUtil.validateToken(token, "testuser"));
+        assertFalse(jwtUtil.validateToken(token, "otheruser"));
+    }
+
+    @Test
+    void verify_ShouldReuseCachedResult_WhenSameTokenVerifiedAgain() {
+        // Arrange
+        String token = jwtUtil.generateToken("testuser");
+
+        // Act
+        VerifiedToken first = jwtUtil.verify(token);
+        VerifiedToken second = jwtUtil.verify(token);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_ShouldThrowJwtException_WhenSignedWithAnotherKey() {
+        // Arrange
+        String token = newJwtUtil("anotherSecretKeyWith32CharactersForTestingOnlyAbcd", 86400000L)
+                .generateToken("testuser");
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void verify_ShouldThrowJwtException_WhenTokenIsExpired() {
+        // Arrange
+        String token = newJwtUtil(-1000L).generateToken("testuser");
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+}